@@ -3,6 +3,7 @@ package org.pipservices3.grpc.build;
 import org.pipservices3.commons.refer.Descriptor;
 import org.pipservices3.components.build.Factory;
 
+import org.pipservices3.grpc.services.BlobGrpcService;
 import org.pipservices3.grpc.services.GrpcEndpoint;
 
 /**
@@ -10,12 +11,15 @@ import org.pipservices3.grpc.services.GrpcEndpoint;
  *
  * @see Factory
  * @see GrpcEndpoint
+ * @see BlobGrpcService
  */
 public class DefaultGrpcFactory extends Factory {
     private static final Descriptor GrpcEndpointDescriptor = new Descriptor("pip-services", "endpoint", "grpc", "*", "1.0");
+    private static final Descriptor BlobGrpcServiceDescriptor = new Descriptor("pip-services", "blob-service", "grpc", "*", "1.0");
 
     public DefaultGrpcFactory() {
         super();
         this.registerAsType(DefaultGrpcFactory.GrpcEndpointDescriptor, GrpcEndpoint.class);
+        this.registerAsType(DefaultGrpcFactory.BlobGrpcServiceDescriptor, BlobGrpcService.class);
     }
 }
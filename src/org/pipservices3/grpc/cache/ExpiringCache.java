@@ -0,0 +1,112 @@
+package org.pipservices3.grpc.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded in-memory store with per-entry time to live and insertion-order eviction.
+ * <p>
+ * Unlike {@link TinyLfuCache} it admits every new entry: when the store is full the oldest
+ * entry is evicted, and expired entries are removed when they are read or reach the head of the store.
+ * It suits values that are written once and must be kept for their time to live,
+ * like replies of invocations with idempotency keys.
+ * <p>
+ * All methods are thread-safe.
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * var store = new ExpiringCache<String, MyReply>(10000);
+ * store.put("key1", reply, 600000);
+ * var value = store.get("key1");
+ * }
+ * </pre>
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values.
+ */
+public class ExpiringCache<K, V> {
+    private final int _maxSize;
+    private final LinkedHashMap<K, Entry<V>> _entries;
+
+    /**
+     * Creates a new instance of the store.
+     *
+     * @param maxSize a maximum number of entries in the store.
+     */
+    public ExpiringCache(int maxSize) {
+        _maxSize = Math.max(1, maxSize);
+        _entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > _maxSize || eldest.getValue().expiresAt <= System.currentTimeMillis();
+            }
+        };
+    }
+
+    /**
+     * Gets the maximum number of entries in the store.
+     *
+     * @return the maximum store size.
+     */
+    public int getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * Gets the current number of entries in the store including expired ones not removed yet.
+     *
+     * @return the store size.
+     */
+    public synchronized int size() {
+        return _entries.size();
+    }
+
+    /**
+     * Gets a value by its key.
+     *
+     * @param key a key of the value.
+     * @return the stored value or null when it is missing or expired.
+     */
+    public synchronized V get(K key) {
+        var entry = _entries.get(key);
+        if (entry == null)
+            return null;
+
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            _entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Puts a value into the store. If the store is full the oldest entry is evicted.
+     *
+     * @param key        a key of the value.
+     * @param value      a value to store.
+     * @param timeToLive time to live of the value in milliseconds.
+     */
+    public synchronized void put(K key, V value, long timeToLive) {
+        // Replaced entries move to the tail as new ones
+        _entries.remove(key);
+        _entries.put(key, new Entry<>(value, System.currentTimeMillis() + timeToLive));
+    }
+
+    /**
+     * Removes all values from the store.
+     */
+    public synchronized void clear() {
+        _entries.clear();
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.pipservices3.grpc.cache;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent operations. While an operation with a key is in flight,
+ * other callers with the same key do not start it again but receive the result of the running one.
+ * When the operation completes the key is released and the next call starts a new operation.
+ * <p>
+ * It shall be used only for idempotent operations, like reads of the same data,
+ * to prevent bursts of identical calls when a popular cached value expires.
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * var flight = new SingleFlight<String, MyData>();
+ * var data = flight.execute("key1", () -> this._persistence.getOneById(correlationId, "key1"));
+ * }
+ * </pre>
+ *
+ * @param <K> the type of operation keys.
+ * @param <V> the type of operation results.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> _calls = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the number of operations in flight.
+     *
+     * @return the number of running operations.
+     */
+    public int getInFlightCount() {
+        return _calls.size();
+    }
+
+    /**
+     * Executes an operation synchronously or waits for the result of the same operation
+     * started by another caller. Exceptions thrown by the operation are rethrown to all callers.
+     *
+     * @param key    a key of the operation.
+     * @param action the operation to execute.
+     * @return the operation result.
+     */
+    public V execute(K key, Callable<V> action) throws Exception {
+        var call = new CompletableFuture<V>();
+        var running = _calls.putIfAbsent(key, call);
+
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof Exception)
+                    throw (Exception) ex.getCause();
+                throw ex;
+            }
+        }
+
+        try {
+            var result = action.call();
+            call.complete(result);
+            return result;
+        } catch (Exception ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } catch (Error err) {
+            call.completeExceptionally(err);
+            throw err;
+        } finally {
+            _calls.remove(key, call);
+        }
+    }
+
+    /**
+     * Starts an asynchronous operation or joins the same operation started by another caller.
+     * Waiting callers do not block threads, they are notified when the operation completes.
+     *
+     * @param key    a key of the operation.
+     * @param action a function that starts the operation.
+     * @return a future of the operation result.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> action) {
+        var call = new CompletableFuture<V>();
+        var running = _calls.putIfAbsent(key, call);
+        if (running != null)
+            return running;
+
+        // The key is released before callers are notified, so they can start new operations
+        try {
+            action.get().whenComplete((result, error) -> {
+                _calls.remove(key, call);
+                if (error != null)
+                    call.completeExceptionally(error);
+                else
+                    call.complete(result);
+            });
+        } catch (Exception ex) {
+            _calls.remove(key, call);
+            call.completeExceptionally(ex);
+        }
+        return call;
+    }
+}
@@ -0,0 +1,302 @@
+package org.pipservices3.grpc.cache;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded in-memory cache with W-TinyLFU eviction policy and per-entry time to live.
+ * <p>
+ * New entries are placed into a small LRU window. Entries leaving the window compete
+ * with the least recently used entry of the main segmented LRU, and the one that was
+ * accessed less frequently is evicted. Access frequencies are estimated by a count-min sketch
+ * that is periodically aged, so the cache adapts to changing workloads while scans and
+ * one-hit wonders do not flush frequently used entries.
+ * <p>
+ * All methods are thread-safe.
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * var cache = new TinyLfuCache<String, MyData>(10000);
+ * cache.put("key1", data, 60000);
+ * var value = cache.get("key1");
+ * cache.invalidateIf(key -> key.startsWith("key"));
+ * }
+ * </pre>
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values.
+ */
+public class TinyLfuCache<K, V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int _maxSize;
+    private final int _maxWindowSize;
+    private final int _maxProtectedSize;
+    private final HashMap<K, Node<K, V>> _nodes = new HashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> _window = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> _probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> _protected = new LinkedHashMap<>();
+    private final FrequencySketch _sketch;
+
+    /**
+     * Creates a new instance of the cache.
+     *
+     * @param maxSize a maximum number of entries in the cache.
+     */
+    public TinyLfuCache(int maxSize) {
+        _maxSize = Math.max(1, maxSize);
+        _maxWindowSize = Math.max(1, _maxSize / 100);
+        _maxProtectedSize = Math.max(1, (_maxSize - _maxWindowSize) * 4 / 5);
+        _sketch = new FrequencySketch(_maxSize);
+    }
+
+    /**
+     * Gets the maximum number of entries in the cache.
+     *
+     * @return the maximum cache size.
+     */
+    public int getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * Gets the current number of entries in the cache including expired ones not evicted yet.
+     *
+     * @return the cache size.
+     */
+    public synchronized int size() {
+        return _nodes.size();
+    }
+
+    /**
+     * Gets a value by its key and records the access.
+     *
+     * @param key a key of the value.
+     * @return the cached value or null when it is missing or expired.
+     */
+    public synchronized V get(K key) {
+        _sketch.increment(key);
+
+        var node = _nodes.get(key);
+        if (node == null)
+            return null;
+
+        if (node.expiresAt <= System.currentTimeMillis()) {
+            remove(node);
+            return null;
+        }
+
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Puts a value into the cache. If the cache is full an entry
+     * with the lowest estimated access frequency is evicted.
+     *
+     * @param key        a key of the value.
+     * @param value      a value to cache.
+     * @param timeToLive time to live of the value in milliseconds.
+     */
+    public synchronized void put(K key, V value, long timeToLive) {
+        var expiresAt = System.currentTimeMillis() + timeToLive;
+
+        var node = _nodes.get(key);
+        if (node != null) {
+            node.value = value;
+            node.expiresAt = expiresAt;
+            onAccess(node);
+            return;
+        }
+
+        _sketch.increment(key);
+
+        node = new Node<>(key, value, expiresAt);
+        _nodes.put(key, node);
+        node.queue = WINDOW;
+        _window.put(key, node);
+
+        // Move the least recent window entry to the main space
+        if (_window.size() > _maxWindowSize) {
+            var candidate = _window.values().iterator().next();
+            _window.remove(candidate.key);
+            candidate.queue = PROBATION;
+            _probation.put(candidate.key, candidate);
+
+            if (_nodes.size() > _maxSize)
+                evict(candidate);
+        }
+    }
+
+    /**
+     * Removes a value from the cache.
+     *
+     * @param key a key of the value.
+     */
+    public synchronized void invalidate(K key) {
+        var node = _nodes.get(key);
+        if (node != null)
+            remove(node);
+    }
+
+    /**
+     * Removes all values which keys match the predicate.
+     *
+     * @param predicate a predicate to select keys.
+     * @return the number of removed values.
+     */
+    public synchronized int invalidateIf(Predicate<K> predicate) {
+        var removed = new ArrayList<Node<K, V>>();
+        for (var node : _nodes.values()) {
+            if (predicate.test(node.key))
+                removed.add(node);
+        }
+
+        for (var node : removed)
+            remove(node);
+        return removed.size();
+    }
+
+    /**
+     * Removes all values from the cache.
+     */
+    public synchronized void clear() {
+        _nodes.clear();
+        _window.clear();
+        _probation.clear();
+        _protected.clear();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                _window.remove(node.key);
+                _window.put(node.key, node);
+                break;
+            case PROBATION:
+                // Entries accessed twice in the main space are protected
+                _probation.remove(node.key);
+                node.queue = PROTECTED;
+                _protected.put(node.key, node);
+
+                if (_protected.size() > _maxProtectedSize) {
+                    var demoted = _protected.values().iterator().next();
+                    _protected.remove(demoted.key);
+                    demoted.queue = PROBATION;
+                    _probation.put(demoted.key, demoted);
+                }
+                break;
+            default:
+                _protected.remove(node.key);
+                _protected.put(node.key, node);
+                break;
+        }
+    }
+
+    private void evict(Node<K, V> candidate) {
+        var victim = _probation.values().iterator().next();
+        if (victim == candidate) {
+            remove(candidate);
+            return;
+        }
+
+        // Expired entries are evicted first
+        if (victim.expiresAt <= System.currentTimeMillis()) {
+            remove(victim);
+            return;
+        }
+
+        if (_sketch.frequency(candidate.key) > _sketch.frequency(victim.key))
+            remove(victim);
+        else
+            remove(candidate);
+    }
+
+    private void remove(Node<K, V> node) {
+        _nodes.remove(node.key);
+        switch (node.queue) {
+            case WINDOW:
+                _window.remove(node.key);
+                break;
+            case PROBATION:
+                _probation.remove(node.key);
+                break;
+            default:
+                _protected.remove(node.key);
+                break;
+        }
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        V value;
+        long expiresAt;
+        int queue;
+
+        Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Count-min sketch with 4-bit saturating counters that are halved
+     * after a sample of accesses to age the frequencies.
+     */
+    private static class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x97cb3127, 0xc2b2ae35, 0x85ebca6b, 0x27d4eb2f};
+
+        private final byte[][] _table;
+        private final int _mask;
+        private final int _sampleSize;
+        private int _additions = 0;
+
+        FrequencySketch(int maxSize) {
+            var width = Integer.highestOneBit(Math.max(16, maxSize) - 1) << 1;
+            _table = new byte[DEPTH][width];
+            _mask = width - 1;
+            _sampleSize = 10 * Math.max(16, maxSize);
+        }
+
+        private int index(Object key, int row) {
+            var hash = key.hashCode() * SEEDS[row];
+            hash ^= hash >>> 16;
+            return hash & _mask;
+        }
+
+        int frequency(Object key) {
+            var frequency = MAX_COUNT;
+            for (var row = 0; row < DEPTH; row++)
+                frequency = Math.min(frequency, _table[row][index(key, row)]);
+            return frequency;
+        }
+
+        void increment(Object key) {
+            var added = false;
+            for (var row = 0; row < DEPTH; row++) {
+                var index = index(key, row);
+                if (_table[row][index] < MAX_COUNT) {
+                    _table[row][index]++;
+                    added = true;
+                }
+            }
+
+            if (added && ++_additions >= _sampleSize)
+                reset();
+        }
+
+        private void reset() {
+            for (var row : _table) {
+                for (var index = 0; index < row.length; index++)
+                    row[index] = (byte) (row[index] >> 1);
+            }
+            _additions /= 2;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.pipservices3.grpc.clients;
+
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.errors.InvocationException;
+import org.pipservices3.grpc.blobs.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32C;
+
+/**
+ * Client that uploads and downloads large binary blobs to {@link org.pipservices3.grpc.services.BlobGrpcService}.
+ * <p>
+ * Files are read and written through memory-mapped buffers, chunks are sent respecting transport
+ * flow control. Interrupted transfers are resumed: uploads continue from the offset stored by the service,
+ * downloads continue from the size of the existing target file.
+ * <p>
+ * ### Configuration parameters ###
+ * <pre>
+ * - connection(s):
+ *   - discovery_key:         (optional) a key to retrieve the connection from {@link org.pipservices3.components.connect.IDiscovery}
+ *   - protocol:              connection protocol: http or https
+ *   - host:                  host name or IP address
+ *   - port:                  port number
+ *   - uri:                   resource URI or connection string with all parameters in it
+ * - options:
+ *   - chunk_size:            size of transferred chunks in bytes (default: 1 MB)
+ *   - connect_timeout:       connection timeout in milliseconds (default: 10 sec)
+ *   - timeout:               invocation timeout in milliseconds (default: 10 sec)
+ * </pre>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * var client = new BlobGrpcClient();
+ * client.configure(ConfigParams.fromTuples(
+ *         "connection.protocol", "http",
+ *         "connection.host", "localhost",
+ *         "connection.port", 8080
+ * ));
+ * client.open(null);
+ *
+ * client.upload("123", "artifact-1", Path.of("artifact.bin"));
+ * client.download("123", "artifact-1", Path.of("copy.bin"));
+ * }
+ * </pre>
+ *
+ * @see org.pipservices3.grpc.services.BlobGrpcService
+ */
+public class BlobGrpcClient extends GrpcClient {
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private int _chunkSize = 1024 * 1024;
+
+    /**
+     * Creates a new instance of the client.
+     */
+    public BlobGrpcClient() {
+        super(BlobsGrpc.getServiceDescriptor());
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        super.configure(config);
+        this._chunkSize = config.getAsIntegerWithDefault("options.chunk_size", this._chunkSize);
+    }
+
+    private static long checksum(FileChannel channel, long from, long to, CRC32C crc) throws IOException {
+        for (long position = from; position < to; position += MAP_WINDOW_SIZE)
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_SIZE, to - position)));
+        return crc.getValue();
+    }
+
+    /**
+     * Gets the state of a blob.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param blobId        a blob id.
+     * @return the blob state.
+     */
+    public BlobInfo getBlobInfo(String correlationId, String blobId) {
+        var request = BlobIdRequest.newBuilder().setBlobId(blobId);
+        if (correlationId != null)
+            request.setCorrelationId(correlationId);
+
+        var timing = this.instrument(correlationId, "blobs.get_blob_info");
+        try {
+            return this.call("get_blob_info", correlationId, request.build());
+        } catch (Exception ex) {
+            timing.endFailure(ex);
+            throw ex;
+        } finally {
+            timing.endSuccess();
+        }
+    }
+
+    /**
+     * Uploads a file as a blob. If the service keeps an incomplete upload of the same blob
+     * the transfer continues from its end.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param blobId        a blob id.
+     * @param file          a path to the file to upload.
+     * @return the state of the uploaded blob.
+     */
+    public BlobInfo upload(String correlationId, String blobId, Path file) throws ApplicationException {
+        var timing = this.instrument(correlationId, "blobs.upload");
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var size = channel.size();
+            var info = getBlobInfo(correlationId, blobId);
+            var offset = !info.getCompleted() && info.getSize() <= size ? info.getSize() : 0;
+
+            var crc = new CRC32C();
+            checksum(channel, 0, offset, crc);
+
+            var result = new CompletableFuture<BlobInfo>();
+            this.<BlobChunk, BlobInfo>callClientStream("upload", correlationId, new ClientResponseObserver<BlobChunk, BlobInfo>() {
+                private ClientCallStreamObserver<BlobChunk> _requests;
+                private long _position = offset;
+                private MappedByteBuffer _window;
+                private long _windowStart;
+                private boolean _sentLast = false;
+                private boolean _closed = false;
+
+                @Override
+                public void beforeStart(ClientCallStreamObserver<BlobChunk> requestStream) {
+                    _requests = requestStream;
+                    _requests.setOnReadyHandler(this::send);
+                }
+
+                // Sends chunks while the transport is ready
+                private synchronized void send() {
+                    // Ready signals keep coming after the stream was half-closed
+                    if (_closed) return;
+
+                    try {
+                        while (!_sentLast && _requests.isReady()) {
+                            var length = (int) Math.min(_chunkSize, size - _position);
+                            if (_window == null || _position + length > _windowStart + _window.capacity()) {
+                                _windowStart = _position;
+                                _window = channel.map(FileChannel.MapMode.READ_ONLY, _windowStart,
+                                        Math.min(Math.max(MAP_WINDOW_SIZE, _chunkSize), size - _windowStart));
+                            }
+
+                            var start = (int) (_position - _windowStart);
+                            ByteBuffer slice = _window.duplicate().position(start).limit(start + length).slice();
+
+                            var chunkCrc = new CRC32C();
+                            chunkCrc.update(slice.duplicate());
+                            crc.update(slice.duplicate());
+
+                            var chunk = BlobChunk.newBuilder()
+                                    .setBlobId(blobId)
+                                    .setOffset(_position)
+                                    .setData(UnsafeByteOperations.unsafeWrap(slice))
+                                    .setChecksum((int) chunkCrc.getValue())
+                                    .setLast(_position + length >= size);
+                            if (correlationId != null)
+                                chunk.setCorrelationId(correlationId);
+
+                            _requests.onNext(chunk.build());
+                            _position += length;
+                            _sentLast = _position >= size;
+                        }
+
+                        if (_sentLast) {
+                            _closed = true;
+                            _requests.onCompleted();
+                        }
+                    } catch (Exception ex) {
+                        _closed = true;
+                        _requests.onError(ex);
+                        result.completeExceptionally(ex);
+                    }
+                }
+
+                @Override
+                public void onNext(BlobInfo value) {
+                    result.complete(value);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    result.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+
+            var uploaded = result.get();
+            if (!uploaded.getCompleted() || uploaded.getSize() != size || uploaded.getChecksum() != (int) crc.getValue())
+                throw new InvocationException(correlationId, "UPLOAD_FAILED", "Upload of blob " + blobId + " was not verified")
+                        .withDetails("blob_id", blobId)
+                        .withDetails("size", uploaded.getSize());
+
+            return uploaded;
+        } catch (ApplicationException ex) {
+            timing.endFailure(ex);
+            throw ex;
+        } catch (Exception ex) {
+            timing.endFailure(ex);
+            throw new InvocationException(correlationId, "UPLOAD_FAILED", "Upload of blob " + blobId + " failed")
+                    .wrap(ex).withDetails("blob_id", blobId);
+        } finally {
+            timing.endSuccess();
+        }
+    }
+
+    /**
+     * Downloads a blob into a file. If the file already exists the transfer
+     * continues from its end.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param blobId        a blob id.
+     * @param file          a path to the target file.
+     * @return the state of the downloaded blob.
+     */
+    public BlobInfo download(String correlationId, String blobId, Path file) throws ApplicationException {
+        var timing = this.instrument(correlationId, "blobs.download");
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var info = getBlobInfo(correlationId, blobId);
+            var offset = channel.size() <= info.getSize() ? channel.size() : 0;
+            channel.truncate(offset);
+            channel.position(offset);
+
+            var request = BlobDownloadRequest.newBuilder()
+                    .setBlobId(blobId)
+                    .setOffset(offset)
+                    .setChunkSize(this._chunkSize);
+            if (correlationId != null)
+                request.setCorrelationId(correlationId);
+
+            var chunks = this.<BlobDownloadRequest, BlobChunk>callStream("download", correlationId, request.build());
+            while (chunks.hasNext()) {
+                var chunk = chunks.next();
+
+                var buffers = chunk.getData().asReadOnlyByteBufferList().toArray(new ByteBuffer[0]);
+                var chunkCrc = new CRC32C();
+                for (var buffer : buffers)
+                    chunkCrc.update(buffer.duplicate());
+                if ((int) chunkCrc.getValue() != chunk.getChecksum())
+                    throw new InvocationException(correlationId, "DATA_LOSS", "Checksum mismatch in blob " + blobId)
+                            .withDetails("offset", chunk.getOffset());
+
+                for (var buffer : buffers)
+                    while (buffer.hasRemaining())
+                        channel.write(buffer);
+            }
+
+            channel.force(false);
+            var size = channel.size();
+            if (size != info.getSize() || checksum(channel, 0, size, new CRC32C()) != Integer.toUnsignedLong(info.getChecksum()))
+                throw new InvocationException(correlationId, "DOWNLOAD_FAILED", "Download of blob " + blobId + " was not verified")
+                        .withDetails("blob_id", blobId)
+                        .withDetails("size", size);
+
+            return info;
+        } catch (ApplicationException ex) {
+            timing.endFailure(ex);
+            throw ex;
+        } catch (Exception ex) {
+            timing.endFailure(ex);
+            throw new InvocationException(correlationId, "DOWNLOAD_FAILED", "Download of blob " + blobId + " failed")
+                    .wrap(ex).withDetails("blob_id", blobId);
+        } finally {
+            timing.endSuccess();
+        }
+    }
+}
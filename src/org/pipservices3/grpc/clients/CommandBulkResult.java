@@ -0,0 +1,67 @@
+package org.pipservices3.grpc.clients;
+
+import org.pipservices3.commons.errors.ErrorDescription;
+
+import java.util.Map;
+
+/**
+ * Summary of commands executed in bulk via {@link CommandableGrpcClient#bulkCommand}.
+ */
+public class CommandBulkResult {
+    private final int _total;
+    private final int _succeeded;
+    private final int _failed;
+    private final Map<Integer, ErrorDescription> _errors;
+
+    /**
+     * Creates a new instance of the result.
+     *
+     * @param total     a number of executed commands.
+     * @param succeeded a number of succeeded commands.
+     * @param failed    a number of failed commands.
+     * @param errors    errors of failed commands by their indexes.
+     */
+    public CommandBulkResult(int total, int succeeded, int failed, Map<Integer, ErrorDescription> errors) {
+        _total = total;
+        _succeeded = succeeded;
+        _failed = failed;
+        _errors = errors;
+    }
+
+    /**
+     * Gets the number of executed commands.
+     *
+     * @return the number of executed commands.
+     */
+    public int getTotal() {
+        return _total;
+    }
+
+    /**
+     * Gets the number of succeeded commands.
+     *
+     * @return the number of succeeded commands.
+     */
+    public int getSucceeded() {
+        return _succeeded;
+    }
+
+    /**
+     * Gets the number of failed commands.
+     *
+     * @return the number of failed commands.
+     */
+    public int getFailed() {
+        return _failed;
+    }
+
+    /**
+     * Gets errors of failed commands by indexes of their parameters.
+     * The number of errors can be limited by the service.
+     *
+     * @return the errors ordered by indexes.
+     */
+    public Map<Integer, ErrorDescription> getErrors() {
+        return _errors;
+    }
+}
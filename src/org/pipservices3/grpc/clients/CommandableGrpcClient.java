@@ -1,13 +1,38 @@
 package org.pipservices3.grpc.clients;
 
+import com.google.protobuf.ByteString;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.convert.JsonConverter;
+import org.pipservices3.commons.errors.ApplicationException;
 import org.pipservices3.commons.errors.ApplicationExceptionFactory;
+import org.pipservices3.commons.errors.ConfigException;
 import org.pipservices3.commons.errors.ErrorDescription;
+import org.pipservices3.grpc.cache.SingleFlight;
+import org.pipservices3.grpc.cache.TinyLfuCache;
+import org.pipservices3.grpc.codecs.ZstdDictionaries;
 import org.pipservices3.grpc.commandable.CommandableGrpc;
+import org.pipservices3.grpc.commandable.EventMessage;
+import org.pipservices3.grpc.commandable.InvokeBulkReply;
 import org.pipservices3.grpc.commandable.InvokeReply;
 import org.pipservices3.grpc.commandable.InvokeRequest;
+import org.pipservices3.grpc.commandable.SubscribeRequest;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 /**
  * Abstract client that calls commandable GRPC service.
@@ -15,6 +40,17 @@ import java.util.Map;
  * Commandable services are generated automatically for {@link org.pipservices3.commons.commands.ICommandable} objects.
  * Each command is exposed as Invoke method that receives all parameters as args.
  * <p>
+ * With conditional invokes enabled the client keeps the last result with its version for recently
+ * called commands and parameters. The version is sent with the next call of the same command,
+ * and when the service replies that the result was not modified it is served from memory.
+ * <p>
+ * Results of reference data commands can be cached on the client. Caching is enabled per command
+ * by "cache.commands.[command name]" configuration parameters. After the time to live a cached result
+ * becomes stale: it is still returned while a fresh one is requested in background (stale-while-revalidate).
+ * After the stale timeout results are requested synchronously, but when the service fails
+ * the stale result is returned until the error timeout passes. Cache hits, stale hits and misses
+ * are counted per command to monitor the hit ratio.
+ * <p>
  * ### Configuration parameters ###
  *
  * <pre>
@@ -28,6 +64,18 @@ import java.util.Map;
  *   - retries:               number of retries (default: 3)
  *   - connect_timeout:       connection timeout in milliseconds (default: 10 sec)
  *   - timeout:               invocation timeout in milliseconds (default: 10 sec)
+ *   - conditional_invoke:    true to send versions of known results and reuse them when not modified (default: false)
+ *   - conditional_cache_size: maximum number of results kept for conditional invokes (default: 1000)
+ *   - coalesce_commands:     comma-separated names of idempotent commands which concurrent identical calls share one invocation
+ * - cache:
+ *   - max_entries:           maximum number of cached results (default: 1000)
+ *   - stale_timeout:         time in milliseconds after expiration when stale results are returned and refreshed in background (default: 60 sec)
+ *   - error_timeout:         time in milliseconds after expiration when stale results are returned if the service fails (default: 5 min)
+ *   - commands:
+ *     - [command name]:      time to live of cached results of the command in milliseconds
+ * - compression:
+ *   - dictionaries:          comma-separated paths to zstd dictionary files to compress arguments and results, the last one is current
+ *   - dictionary_min_size:   minimum size of arguments JSON in characters to compress (default: 64)
  *   </pre>
  * <p>
  * ### References ###
@@ -74,6 +122,25 @@ public class CommandableGrpcClient extends GrpcClient {
      */
     protected String _name;
 
+    private boolean _conditionalInvoke = false;
+    private int _conditionalCacheSize = 1000;
+    private final LinkedHashMap<String, CommandResult> _versionedResults = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CommandResult> eldest) {
+            return size() > _conditionalCacheSize;
+        }
+    };
+
+    private final Map<String, Long> _cacheTimeouts = new ConcurrentHashMap<>();
+    private int _cacheMaxEntries = 1000;
+    private long _cacheStaleTimeout = 60000;
+    private long _cacheErrorTimeout = 300000;
+    private volatile TinyLfuCache<String, CachedResult> _cache;
+    private ExecutorService _refreshExecutor;
+    private final Set<String> _coalescedCommands = ConcurrentHashMap.newKeySet();
+    private final SingleFlight<String, CommandResult> _commandFlight = new SingleFlight<>();
+    private final ZstdDictionaries _dictionaries = new ZstdDictionaries();
+
     /**
      * Create new instance of the commandable client
      *
@@ -84,6 +151,78 @@ public class CommandableGrpcClient extends GrpcClient {
         _name = name;
     }
 
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        super.configure(config);
+
+        this._conditionalInvoke = config.getAsBooleanWithDefault("options.conditional_invoke", this._conditionalInvoke);
+        this._conditionalCacheSize = config.getAsIntegerWithDefault("options.conditional_cache_size", this._conditionalCacheSize);
+
+        var coalesced = config.getAsNullableString("options.coalesce_commands");
+        if (coalesced != null) {
+            for (var command : coalesced.split(","))
+                if (!command.isBlank())
+                    this._coalescedCommands.add(command.trim());
+        }
+
+        this._cacheMaxEntries = config.getAsIntegerWithDefault("cache.max_entries", this._cacheMaxEntries);
+        this._cacheStaleTimeout = config.getAsLongWithDefault("cache.stale_timeout", this._cacheStaleTimeout);
+        this._cacheErrorTimeout = config.getAsLongWithDefault("cache.error_timeout", this._cacheErrorTimeout);
+        var commands = config.getSection("cache.commands");
+        for (var command : commands.keySet())
+            this.registerCommandCache(command, commands.getAsLong(command));
+
+        this._dictionaries.configure(config);
+    }
+
+    /**
+     * Closes component and frees used resources.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void close(String correlationId) throws ApplicationException {
+        synchronized (this) {
+            if (this._refreshExecutor != null) {
+                this._refreshExecutor.shutdownNow();
+                this._refreshExecutor = null;
+            }
+        }
+
+        super.close(correlationId);
+    }
+
+    /**
+     * Enables caching of the command results on the client. The command shall return
+     * reference data that can be served from memory during the cache time to live.
+     *
+     * @param name       a name of the command.
+     * @param timeToLive time to live of cached results in milliseconds.
+     */
+    protected synchronized void registerCommandCache(String name, long timeToLive) {
+        if (this._cache == null)
+            this._cache = new TinyLfuCache<>(this._cacheMaxEntries);
+        this._cacheTimeouts.put(name, timeToLive);
+    }
+
+    /**
+     * Removes cached results of commands which names start with the prefix.
+     *
+     * @param namePrefix a command name or a prefix of command names. Empty prefix removes all cached results.
+     */
+    protected void invalidateCache(String namePrefix) {
+        var cache = this._cache;
+        if (cache != null) {
+            var prefix = this._name + '.' + (namePrefix != null ? namePrefix : "");
+            cache.invalidateIf(key -> key.startsWith(prefix));
+        }
+    }
+
     /**
      * Calls a remote method via GRPC commadable protocol.
      * The call is made via Invoke method and all parameters are sent in args object.
@@ -96,34 +235,270 @@ public class CommandableGrpcClient extends GrpcClient {
      * @return the received result.
      */
     protected <T> T callCommand(Class<T> returnType, String name, String correlationId, Object params) {
+        return callCommand(returnType, name, correlationId, params, null);
+    }
+
+    /**
+     * Calls a remote method via GRPC commadable protocol with an idempotency key.
+     * The service executes the command only once for the same key and returns the stored
+     * result to repeated calls, so calls of non-idempotent commands can be safely retried.
+     * The complete route to remote method is defined as serviceName + "." + name.
+     *
+     * @param returnType     generic type of the return object
+     * @param name           a name of the command to call.
+     * @param correlationId  (optional) transaction id to trace execution through call chain.
+     * @param params         command parameters.
+     * @param idempotencyKey (optional) a unique key of the operation that is kept between retries.
+     * @return the received result.
+     */
+    protected <T> T callCommand(Class<T> returnType, String name, String correlationId, Object params, String idempotencyKey) {
         var method = this._name + '.' + name;
         var timing = this.instrument(correlationId, method);
 
         try {
-            var request = InvokeRequest.newBuilder()
-                    .setMethod(method)
-                    .setArgsEmpty(params == null || params instanceof Map<?, ?> && ((Map<?, ?>) params).isEmpty());
+            var request = createRequest(params).setMethod(method);
 
             if (correlationId != null)
                 request.setCorrelationId(correlationId);
+            if (idempotencyKey != null)
+                request.setIdempotencyKey(idempotencyKey);
 
-            if (params != null)
-                request.setArgsJson(JsonConverter.toJson(params));
-
-            InvokeReply response = this.call("invoke", correlationId, request.build());
-
-            // Handle error response
-            if (!response.getError().getMessage().equals(""))
-                throw ApplicationExceptionFactory.create(convertErrorDescription(response.getError()));
+            var cacheTimeout = this._cache != null ? this._cacheTimeouts.get(name) : null;
+            Callable<CommandResult> invocation = () -> cacheTimeout != null
+                    ? invokeCached(method, request, cacheTimeout)
+                    : invoke(method, request);
 
+            // Concurrent identical calls share one invocation
+            var result = this._coalescedCommands.contains(name)
+                    ? this._commandFlight.execute(method + ":" + request.getArgsJson(), invocation)
+                    : invocation.call();
 
             // Handle empty response
-            if (response.getResultEmpty() || response.getResultJson().equals("") || response.getResultJson().equals("{}")) {
+            if (result.empty || result.json.equals("") || result.json.equals("{}")) {
                 return null;
             }
 
             // Handle regular response
-            return JsonConverter.fromJson(returnType, response.getResultJson());
+            return JsonConverter.fromJson(returnType, result.json);
+        } catch (Exception ex) {
+            timing.endFailure(ex);
+            throw new RuntimeException(ex);
+        } finally {
+            timing.endSuccess();
+        }
+    }
+
+    private CommandResult invoke(String method, InvokeRequest.Builder request) throws Exception {
+        // Send the version of the last known result
+        String resultKey = null;
+        CommandResult known = null;
+        if (this._conditionalInvoke) {
+            resultKey = method + ":" + request.getArgsJson();
+            synchronized (this._versionedResults) {
+                known = this._versionedResults.get(resultKey);
+            }
+            if (known != null)
+                request.setVersion(known.version);
+        }
+
+        InvokeReply response = this.call("invoke", request.getCorrelationId(), compressRequest(request));
+
+        // Handle error response
+        if (!response.getError().getMessage().equals(""))
+            throw ApplicationExceptionFactory.create(convertErrorDescription(response.getError()));
+
+        if (response.getNotModified() && known != null) {
+            // Serve unchanged result from memory
+            this._counters.incrementOne(method + ".not_modified_count");
+            return known;
+        }
+
+        var resultJson = response.getResultZstd().isEmpty()
+                ? response.getResultJson()
+                : this._dictionaries.decompress(response.getDictionaryId(), response.getResultZstd().toByteArray());
+        var result = new CommandResult(response.getVersion(), response.getResultEmpty(), resultJson);
+        if (resultKey != null && !result.version.isEmpty()) {
+            synchronized (this._versionedResults) {
+                this._versionedResults.put(resultKey, result);
+            }
+        }
+        return result;
+    }
+
+    private CommandResult invokeCached(String method, InvokeRequest.Builder request, long timeToLive) throws Exception {
+        var key = method + ":" + request.getArgsJson();
+        var now = System.currentTimeMillis();
+        var cached = this._cache.get(key);
+
+        if (cached != null && now < cached.freshUntil) {
+            this._counters.incrementOne(method + ".cache.hit_count");
+            return cached.result;
+        }
+
+        // Serve stale result and refresh it in background
+        if (cached != null && now < cached.staleUntil) {
+            this._counters.incrementOne(method + ".cache.stale_count");
+            if (cached.startRefresh())
+                refreshInBackground(method, key, request, timeToLive, cached);
+            return cached.result;
+        }
+
+        this._counters.incrementOne(method + ".cache.miss_count");
+        try {
+            var result = invoke(method, request);
+            putCached(key, result, timeToLive);
+            return result;
+        } catch (Exception ex) {
+            // Serve stale result when the service is not available
+            if (cached != null && now < cached.expiresAt) {
+                this._counters.incrementOne(method + ".cache.stale_error_count");
+                this._logger.warn(request.getCorrelationId(), "Served stale result of %s after error: %s", method, ex);
+                return cached.result;
+            }
+            throw ex;
+        }
+    }
+
+    private InvokeRequest compressRequest(InvokeRequest.Builder request) {
+        var dictionaryId = this._dictionaries.getCurrentId();
+        if (dictionaryId == 0)
+            return request.build();
+
+        // The service compresses the result with the dictionary the client has
+        var compressed = request.clone().setDictionaryId(dictionaryId);
+        if (this._dictionaries.shouldCompress(request.getArgsJson()))
+            compressed.clearArgsJson().setArgsZstd(ByteString.copyFrom(
+                    this._dictionaries.compress(dictionaryId, request.getArgsJson())));
+        return compressed.build();
+    }
+
+    private void putCached(String key, CommandResult result, long timeToLive) {
+        var now = System.currentTimeMillis();
+        var entry = new CachedResult(result, now + timeToLive, now + timeToLive + this._cacheStaleTimeout,
+                now + timeToLive + Math.max(this._cacheStaleTimeout, this._cacheErrorTimeout));
+        this._cache.put(key, entry, entry.expiresAt - now);
+    }
+
+    private void refreshInBackground(String method, String key, InvokeRequest.Builder request,
+                                     long timeToLive, CachedResult cached) {
+        ExecutorService executor;
+        synchronized (this) {
+            if (this._refreshExecutor == null) {
+                this._refreshExecutor = Executors.newCachedThreadPool(runnable -> {
+                    var thread = new Thread(runnable, "commandable-cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            executor = this._refreshExecutor;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    putCached(key, invoke(method, request), timeToLive);
+                    this._counters.incrementOne(method + ".cache.refresh_count");
+                } catch (Exception ex) {
+                    // Keep serving the stale result until it expires
+                    cached.endRefresh();
+                    this._logger.warn(request.getCorrelationId(), "Failed to refresh cached result of %s: %s", method, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            cached.endRefresh();
+        }
+    }
+
+    private static InvokeRequest.Builder createRequest(Object params) throws Exception {
+        var request = InvokeRequest.newBuilder()
+                .setArgsEmpty(params == null || params instanceof Map<?, ?> && ((Map<?, ?>) params).isEmpty());
+
+        if (params != null)
+            request.setArgsJson(JsonConverter.toJson(params));
+
+        return request;
+    }
+
+    /**
+     * Calls a remote method many times via GRPC commandable protocol.
+     * Parameters are streamed to the service in one call as fast as the transport allows,
+     * the service executes the commands in parallel and returns the summary of their results.
+     * The complete route to remote method is defined as serviceName + "." + name.
+     *
+     * @param name          a name of the command to call.
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param params        an iterator over parameters of each command call.
+     * @return the summary of executed commands.
+     */
+    protected CommandBulkResult bulkCommand(String name, String correlationId, Iterator<?> params) {
+        var method = this._name + '.' + name;
+        var timing = this.instrument(correlationId, method + ".bulk");
+
+        try {
+            var result = new CompletableFuture<InvokeBulkReply>();
+
+            this.<InvokeRequest, InvokeBulkReply>callClientStream("invoke_bulk", correlationId, new ClientResponseObserver<InvokeRequest, InvokeBulkReply>() {
+                private ClientCallStreamObserver<InvokeRequest> _requests;
+                private boolean _first = true;
+                private boolean _sentAll = false;
+
+                @Override
+                public void beforeStart(ClientCallStreamObserver<InvokeRequest> requestStream) {
+                    _requests = requestStream;
+                    _requests.setOnReadyHandler(this::send);
+                }
+
+                // Sends parameters while the transport is ready
+                private synchronized void send() {
+                    try {
+                        while (!_sentAll && _requests.isReady()) {
+                            if (!params.hasNext()) {
+                                _sentAll = true;
+                                _requests.onCompleted();
+                                break;
+                            }
+
+                            var request = createRequest(params.next());
+
+                            // The service takes the method and correlation id from previous requests
+                            if (_first) {
+                                request.setMethod(method);
+                                if (correlationId != null)
+                                    request.setCorrelationId(correlationId);
+                                _first = false;
+                            }
+
+                            _requests.onNext(request.build());
+                        }
+                    } catch (Exception ex) {
+                        _sentAll = true;
+                        _requests.onError(ex);
+                        result.completeExceptionally(ex);
+                    }
+                }
+
+                @Override
+                public void onNext(InvokeBulkReply value) {
+                    result.complete(value);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    result.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+
+            var reply = result.get();
+
+            var errors = new TreeMap<Integer, ErrorDescription>();
+            for (var error : reply.getErrorsList())
+                errors.put(error.getIndex(), convertErrorDescription(error.getError()));
+
+            return new CommandBulkResult(reply.getTotal(), reply.getSucceeded(), reply.getFailed(), errors);
         } catch (Exception ex) {
             timing.endFailure(ex);
             throw new RuntimeException(ex);
@@ -132,6 +507,24 @@ public class CommandableGrpcClient extends GrpcClient {
         }
     }
 
+    /**
+     * Subscribes to events pushed by the commandable service.
+     * Events are received as the returned stream is consumed, closing the stream cancels the subscription.
+     * Event data can be converted from JSON using {@link JsonConverter}.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param topics        topics to subscribe to. When no topics are set all events are received.
+     * @return a stream of received events.
+     */
+    protected Stream<EventMessage> subscribe(String correlationId, String... topics) {
+        var request = SubscribeRequest.newBuilder().addAllTopics(List.of(topics));
+        if (correlationId != null)
+            request.setCorrelationId(correlationId);
+
+        return this.<SubscribeRequest, EventMessage, EventMessage>callChunkedStream(
+                "subscribe", correlationId, request.build(), List::of);
+    }
+
     private ErrorDescription convertErrorDescription(org.pipservices3.grpc.commandable.ErrorDescription ex) {
         var err = new ErrorDescription();
         err.setStatus(ex.getStatus());
@@ -145,4 +538,39 @@ public class CommandableGrpcClient extends GrpcClient {
 
         return err;
     }
+
+    private static class CommandResult {
+        final String version;
+        final boolean empty;
+        final String json;
+
+        CommandResult(String version, boolean empty, String json) {
+            this.version = version;
+            this.empty = empty;
+            this.json = json;
+        }
+    }
+
+    private static class CachedResult {
+        final CommandResult result;
+        final long freshUntil;
+        final long staleUntil;
+        final long expiresAt;
+        private final AtomicBoolean _refreshing = new AtomicBoolean();
+
+        CachedResult(CommandResult result, long freshUntil, long staleUntil, long expiresAt) {
+            this.result = result;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean startRefresh() {
+            return _refreshing.compareAndSet(false, true);
+        }
+
+        void endRefresh() {
+            _refreshing.set(false);
+        }
+    }
 }
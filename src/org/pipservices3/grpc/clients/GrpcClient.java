@@ -1,10 +1,20 @@
 package org.pipservices3.grpc.clients;
 
 import com.google.api.client.util.IOUtils;
+import com.google.protobuf.Message;
+import com.google.protobuf.MessageLite;
 import io.grpc.*;
+import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.NettyChannelBuilder;
 import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.ssl.SslContext;
 import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.config.IConfigurable;
@@ -18,14 +28,23 @@ import org.pipservices3.commons.run.IOpenable;
 import org.pipservices3.components.count.CompositeCounters;
 import org.pipservices3.components.log.CompositeLogger;
 import org.pipservices3.components.trace.CompositeTracer;
+import org.pipservices3.grpc.cache.SingleFlight;
+import org.pipservices3.grpc.codecs.MessageCompression;
+import org.pipservices3.grpc.codecs.ZeroCopyMarshaller;
 import org.pipservices3.rpc.connect.HttpConnectionResolver;
 import org.pipservices3.rpc.services.InstrumentTiming;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract client that calls remove endpoints using GRPC protocol.
@@ -34,16 +53,39 @@ import java.util.Objects;
  * <pre>
  * - connection(s):
  *   - discovery_key:         (optional) a key to retrieve the connection from {@link org.pipservices3.components.connect.IDiscovery}
- *   - protocol:              connection protocol: http or https
+ *   - protocol:              connection protocol: http, https, inproc or unix
  *   - host:                  host name or IP address
  *   - port:                  port number
+ *   - path:                  socket file path for unix protocol
  *   - uri:                   resource URI or connection string with all parameters in it
  * - options:
  *   - retries:               number of retries (default: 3)
  *   - connect_timeout:       connection timeout in milliseconds (default: 10 sec)
+ *   - eager_connect:         true to connect in open and wait for the connection up to connect_timeout (default: false)
+ *   - wait_for_ready:        true for calls to wait until the connection is ready instead of failing fast (default: false)
+ *   - wait_for_ready_methods: comma-separated names of methods which calls wait until the connection is ready
  *   - timeout:               invocation timeout in milliseconds (default: 10 sec)
+ *   - coalesce_methods:      comma-separated names of idempotent methods which concurrent identical calls share one call
+ *   - zero_copy_threshold:   minimum size in bytes of responses parsed directly from transport buffers (default: 0, disabled)
+ *   - keepalive_time:        time in milliseconds between keepalive pings, shall be allowed by the server (default: disabled)
+ *   - keepalive_timeout:     time in milliseconds to wait for keepalive ping acknowledge before reconnecting (default: 20 sec)
+ *   - keepalive_without_calls: true to send keepalive pings without calls in progress (default: false)
+ *   - idle_timeout:          time in milliseconds after which an idle connection is closed (default: 30 min)
+ * - compression:
+ *   - codec:                 default codec to compress requests: none, gzip or zstd (default: none)
+ *   - min_size:              minimum size of compressed requests in bytes (default: 1024)
+ *   - level:                 zstd compression level (default: 3)
+ *   - methods:
+ *     - [method]:            codec for the method
  * </pre>
  * <p>
+ * With "inproc" protocol the client calls a {@link org.pipservices3.grpc.services.GrpcEndpoint} opened
+ * with the same protocol and port (or "inproc://[name]" URI) in the same process, without network
+ * and serialization overhead.
+ * <p>
+ * With "unix" protocol or "unix://[path]" URI the client connects to a service on the same host
+ * via unix domain socket, which requires Linux with native epoll transport.
+ * <p>
  * ### References ###
  * <p>
  * - *:logger:*:*:1.0         (optional) {@link org.pipservices3.components.log.ILogger} components to pass log messages
@@ -145,6 +187,23 @@ public class GrpcClient implements IOpenable, IConfigurable, IReferenceable {
      */
     protected String _uri;
 
+    private final Set<String> _coalescedMethods = new HashSet<>();
+    private final SingleFlight<Object, Object> _callFlight = new SingleFlight<>();
+    private int _zeroCopyThreshold = 0;
+    private final Map<String, MethodDescriptor<?, ?>> _methods = new ConcurrentHashMap<>();
+    private MessageCompression _compression = new MessageCompression();
+    private String _inProcessName;
+    private ManagedChannel _managedChannel;
+    private String _socketPath;
+    private EventLoopGroup _eventLoopGroup;
+    private long _keepAliveTime = 0;
+    private long _keepAliveTimeout = 0;
+    private boolean _keepAliveWithoutCalls = false;
+    private long _idleTimeout = 0;
+    private boolean _eagerConnect = false;
+    private boolean _waitForReady = false;
+    private final Set<String> _waitForReadyMethods = new HashSet<>();
+
     public GrpcClient(io.grpc.ServiceDescriptor serviceDescriptor) {
         _serviceDescriptor = serviceDescriptor;
     }
@@ -157,11 +216,41 @@ public class GrpcClient implements IOpenable, IConfigurable, IReferenceable {
     @Override
     public void configure(ConfigParams config) throws ConfigException {
         config = config.setDefaults(GrpcClient._defaultConfig);
-        this._connectionResolver.configure(config);
+        this._inProcessName = getInProcessName(config);
+        this._socketPath = getSocketPath(config);
+        if (this._inProcessName == null && this._socketPath == null)
+            this._connectionResolver.configure(config);
         this._options = this._options.override(config.getSection("options"));
 
         this._connectTimeout = config.getAsLongWithDefault("options.connect_timeout", this._connectTimeout);
         this._timeout = config.getAsLongWithDefault("options.timeout", this._timeout);
+
+        var coalesced = config.getAsNullableString("options.coalesce_methods");
+        if (coalesced != null) {
+            for (var method : coalesced.split(","))
+                if (!method.isBlank())
+                    this._coalescedMethods.add(method.trim());
+        }
+
+        this._zeroCopyThreshold = config.getAsIntegerWithDefault("options.zero_copy_threshold", this._zeroCopyThreshold);
+        this._methods.clear();
+
+        this._keepAliveTime = config.getAsLongWithDefault("options.keepalive_time", this._keepAliveTime);
+        this._keepAliveTimeout = config.getAsLongWithDefault("options.keepalive_timeout", this._keepAliveTimeout);
+        this._keepAliveWithoutCalls = config.getAsBooleanWithDefault("options.keepalive_without_calls", this._keepAliveWithoutCalls);
+        this._idleTimeout = config.getAsLongWithDefault("options.idle_timeout", this._idleTimeout);
+
+        this._eagerConnect = config.getAsBooleanWithDefault("options.eager_connect", this._eagerConnect);
+        this._waitForReady = config.getAsBooleanWithDefault("options.wait_for_ready", this._waitForReady);
+        var waitForReady = config.getAsNullableString("options.wait_for_ready_methods");
+        if (waitForReady != null) {
+            for (var method : waitForReady.split(","))
+                if (!method.isBlank())
+                    this._waitForReadyMethods.add(method.trim());
+        }
+
+        this._compression = new MessageCompression();
+        this._compression.configure(config);
     }
 
     /**
@@ -216,59 +305,197 @@ public class GrpcClient implements IOpenable, IConfigurable, IReferenceable {
             return;
         }
 
-        var connection = this._connectionResolver.resolve(correlationId);
-
-        var host = connection.getHost();
-        var port = connection.getPort();
-
         try {
-
-            if (Objects.equals(connection.getAsStringWithDefault("protocol", "http"), "https")) {
-                var sslKeyPath = connection.getAsNullableString("ssl_key_file");
-                var sslCrtPath = connection.getAsNullableString("ssl_crt_file");
-                var sslCaPath = connection.getAsNullableString("ssl_ca_file");
-
-//                var ca = new ArrayList<>();
-//
-//                if (sslCaPath != null) {
-//                    try(var caFile = new FileInputStream(sslCaPath)) {
-//                        var caText = new String(caFile.readAllBytes(), StandardCharsets.UTF_8);
-//                        var crtIndex = caText.lastIndexOf("-----BEGIN CERTIFICATE-----");
-//                        if (crtIndex > -1) {
-//                            ca.add(caText.substring(crtIndex));
-//                            caText = caText.substring(0, crtIndex);
-//                        }
-//                    }
-//                }
-                SslContext sslContext = GrpcSslContexts.forClient()
-                        // if server's cert doesn't chain to a standard root
-                        .trustManager(new File(sslCaPath))
-                        .keyManager(new File(sslCrtPath), new File(sslKeyPath)) // client cert
-                        .build();
-
-                _channel = NettyChannelBuilder.forAddress(host, port)
-                        .sslContext(sslContext)
-                        .build();
+            ManagedChannelBuilder<?> builder;
+            if (this._inProcessName != null) {
+                // Calls to a service in the same process skip the network stack
+                this._uri = "inproc://" + this._inProcessName;
+                builder = InProcessChannelBuilder.forName(this._inProcessName);
+            } else if (this._socketPath != null) {
+                builder = createSocketChannelBuilder();
             } else {
-                _channel = ManagedChannelBuilder.forAddress(host, port)
-                        // Channels are secure by default (via SSL/TLS). For the example we disable TLS to avoid
-                        // needing certificates.
-                        .usePlaintext()
-                        .build();
+                builder = createChannelBuilder(correlationId);
             }
+            configureConnection(builder);
+
+            // Compressed responses are accepted with all supported codecs
+            _managedChannel = builder.compressorRegistry(_compression.createCompressorRegistry())
+                    .decompressorRegistry(_compression.createDecompressorRegistry())
+                    .build();
+            watchState(correlationId, _managedChannel, ConnectivityState.IDLE, new AtomicBoolean());
+
+            if (this._eagerConnect)
+                waitForReady(correlationId);
+
+            _channel = _compression.isEnabled()
+                    ? ClientInterceptors.intercept(_managedChannel, _compression.createClientInterceptor())
+                    : _managedChannel;
         } catch (Exception ex) {
+            if (this._managedChannel != null)
+                this._managedChannel.shutdownNow();
             this._channel = null;
+            this._managedChannel = null;
+            shutdownEventLoop();
+
+            if (ex instanceof ApplicationException)
+                throw (ApplicationException) ex;
             throw new ConnectionException(
                     correlationId,
                     "CANNOT_CONNECT",
                     "Opening GRPC client failed"
             ).wrap(ex).withDetails("url", this._uri);
         }
+    }
+
+    private void waitForReady(String correlationId) throws ApplicationException, InterruptedException {
+        // Requesting the state starts DNS resolution, TCP, TLS and HTTP/2 handshakes
+        var deadline = System.currentTimeMillis() + this._connectTimeout;
+        var state = this._managedChannel.getState(true);
+
+        while (state != ConnectivityState.READY) {
+            var remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0 || state == ConnectivityState.SHUTDOWN) {
+                throw new ConnectionException(
+                        correlationId,
+                        "CANNOT_CONNECT",
+                        "Connection to GRPC service was not established in " + this._connectTimeout + " milliseconds"
+                ).withDetails("url", this._uri).withDetails("state", state);
+            }
+
+            // The channel keeps reconnecting with backoff after transient failures
+            var changed = new CountDownLatch(1);
+            this._managedChannel.notifyWhenStateChanged(state, changed::countDown);
+            changed.await(remaining, TimeUnit.MILLISECONDS);
+            state = this._managedChannel.getState(true);
+        }
+
+        this._logger.debug(correlationId, "Connected to GRPC service at %s", this._uri);
+    }
+
+    private void watchState(String correlationId, ManagedChannel channel, ConnectivityState state, AtomicBoolean connected) {
+        channel.notifyWhenStateChanged(state, () -> {
+            var newState = channel.getState(false);
+            this._counters.incrementOne("grpc_client.channel." + newState.name().toLowerCase());
+
+            if (newState == ConnectivityState.READY && connected.getAndSet(true)) {
+                this._counters.incrementOne("grpc_client.channel.reconnects");
+                this._logger.debug(correlationId, "Reconnected to GRPC service at %s", this._uri);
+            } else if (newState == ConnectivityState.TRANSIENT_FAILURE) {
+                this._logger.warn(correlationId, "Connection to GRPC service at %s failed", this._uri);
+            }
+
+            if (newState != ConnectivityState.SHUTDOWN)
+                watchState(correlationId, channel, newState, connected);
+        });
+    }
+
+    private CallOptions getCallOptions(String methodName) {
+        if (!this._waitForReady && !this._waitForReadyMethods.contains(methodName))
+            return CallOptions.DEFAULT;
+
+        // Calls waiting for the connection are still bounded by the invocation timeout
+        var options = CallOptions.DEFAULT.withWaitForReady();
+        return this._timeout > 0 ? options.withDeadlineAfter(this._timeout, TimeUnit.MILLISECONDS) : options;
+    }
+
+    private void configureConnection(ManagedChannelBuilder<?> builder) {
+        if (this._idleTimeout > 0)
+            builder.idleTimeout(this._idleTimeout, TimeUnit.MILLISECONDS);
+
+        // Keepalive pings are meaningless for in-process calls
+        if (this._inProcessName != null)
+            return;
+
+        if (this._keepAliveTime > 0) {
+            builder.keepAliveTime(this._keepAliveTime, TimeUnit.MILLISECONDS)
+                    .keepAliveWithoutCalls(this._keepAliveWithoutCalls);
+        }
+        if (this._keepAliveTimeout > 0)
+            builder.keepAliveTimeout(this._keepAliveTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    private ManagedChannelBuilder<?> createChannelBuilder(String correlationId) throws Exception {
+        var connection = this._connectionResolver.resolve(correlationId);
+
+        var host = connection.getHost();
+        var port = connection.getPort();
+
+        if (Objects.equals(connection.getAsStringWithDefault("protocol", "http"), "https")) {
+            var sslKeyPath = connection.getAsNullableString("ssl_key_file");
+            var sslCrtPath = connection.getAsNullableString("ssl_crt_file");
+            var sslCaPath = connection.getAsNullableString("ssl_ca_file");
+
+//            var ca = new ArrayList<>();
+//
+//            if (sslCaPath != null) {
+//                try(var caFile = new FileInputStream(sslCaPath)) {
+//                    var caText = new String(caFile.readAllBytes(), StandardCharsets.UTF_8);
+//                    var crtIndex = caText.lastIndexOf("-----BEGIN CERTIFICATE-----");
+//                    if (crtIndex > -1) {
+//                        ca.add(caText.substring(crtIndex));
+//                        caText = caText.substring(0, crtIndex);
+//                    }
+//                }
+//            }
+            SslContext sslContext = GrpcSslContexts.forClient()
+                    // if server's cert doesn't chain to a standard root
+                    .trustManager(new File(sslCaPath))
+                    .keyManager(new File(sslCrtPath), new File(sslKeyPath)) // client cert
+                    .build();
+
+            return NettyChannelBuilder.forAddress(host, port)
+                    .sslContext(sslContext);
+        } else {
+            return ManagedChannelBuilder.forAddress(host, port)
+                    // Channels are secure by default (via SSL/TLS). For the example we disable TLS to avoid
+                    // needing certificates.
+                    .usePlaintext();
+        }
+    }
+
+    private ManagedChannelBuilder<?> createSocketChannelBuilder() throws ApplicationException {
+        if (!Epoll.isAvailable())
+            throw new ConfigException(null, "UNIX_SOCKETS_NOT_SUPPORTED",
+                    "Unix domain sockets require native epoll transport").wrap(Epoll.unavailabilityCause());
 
+        this._uri = "unix://" + this._socketPath;
+        this._eventLoopGroup = new EpollEventLoopGroup(1);
+        return NettyChannelBuilder.forAddress(new DomainSocketAddress(this._socketPath))
+                .channelType(EpollDomainSocketChannel.class)
+                .eventLoopGroup(this._eventLoopGroup)
+                .usePlaintext();
+    }
+
+    private void shutdownEventLoop() {
+        if (this._eventLoopGroup != null)
+            this._eventLoopGroup.shutdownGracefully();
+        this._eventLoopGroup = null;
+    }
+
+    private static String getSocketPath(ConfigParams config) {
+        var uri = config.getAsNullableString("connection.uri");
+        if (uri != null && uri.startsWith("unix://"))
+            return uri.substring("unix://".length());
+
+        if (Objects.equals(config.getAsNullableString("connection.protocol"), "unix"))
+            return config.getAsNullableString("connection.path");
+
+        return null;
+    }
+
+    private static String getInProcessName(ConfigParams config) {
+        var uri = config.getAsNullableString("connection.uri");
+        if (uri != null && uri.startsWith("inproc://"))
+            return uri.substring("inproc://".length());
+
+        if (Objects.equals(config.getAsNullableString("connection.protocol"), "inproc"))
+            return config.getAsStringWithDefault("connection.port", "0");
+
+        return null;
     }
 
     /**
-     * Closes component and frees used resources.
+     * Closes component and frees used resources. Calls in progress are cancelled.
      *
      * @param correlationId (optional) transaction id to trace execution through call chain.
      */
@@ -282,11 +509,34 @@ public class GrpcClient implements IOpenable, IConfigurable, IReferenceable {
                 this._logger.warn(correlationId, "Failed while closing GRPC service: %s", ex);
             }
 
+            // Calls in progress are cancelled
+            if (this._managedChannel != null)
+                this._managedChannel.shutdownNow();
+            shutdownEventLoop();
+
             this._channel = null;
+            this._managedChannel = null;
             this._uri = null;
         }
     }
 
+    private <TRequest, TResponse> MethodDescriptor<TRequest, TResponse> getMethod(String methodName) {
+        return (MethodDescriptor<TRequest, TResponse>) _methods.computeIfAbsent(methodName, (name) -> {
+            var method = _serviceDescriptor.getMethods().stream().filter((m) -> {
+                var splitName = m.getFullMethodName().split("/");
+                return splitName.length > 1 && Objects.equals(splitName[1], name);
+            }).findFirst().get();
+
+            if (_zeroCopyThreshold <= 0 || !(method.getResponseMarshaller() instanceof MethodDescriptor.PrototypeMarshaller))
+                return method;
+
+            // Responses are handed over to callers, so they are parsed without aliasing transport buffers
+            var prototype = ((MethodDescriptor.PrototypeMarshaller<?>) method.getResponseMarshaller()).getMessagePrototype();
+            return method.toBuilder(method.getRequestMarshaller(),
+                    new ZeroCopyMarshaller<>((MessageLite) prototype, _zeroCopyThreshold, false)).build();
+        });
+    }
+
     /**
      * Calls a remote method via GRPC protocol.
      *
@@ -296,15 +546,97 @@ public class GrpcClient implements IOpenable, IConfigurable, IReferenceable {
      * @return the received result.
      */
     protected <TRequest, TResponse> TResponse call(String methodName, String correlationId, TRequest request) {
-        var method = _serviceDescriptor.getMethods().stream().filter((m) -> {
-            var splitName = m.getFullMethodName().split("/");
-            return splitName.length > 1 && Objects.equals(splitName[1], methodName);
-        }).findFirst();
+        if (!this._coalescedMethods.contains(methodName) || !(request instanceof Message))
+            return ClientCalls.blockingUnaryCall(
+                    _channel,
+                    this.<TRequest, TResponse>getMethod(methodName),
+                    getCallOptions(methodName), request
+            );
+
+        // Concurrent identical calls share one call
+        try {
+            return (TResponse) this._callFlight.execute(getCoalescingKey(methodName, (Message) request),
+                    () -> ClientCalls.blockingUnaryCall(
+                            _channel,
+                            this.<TRequest, TResponse>getMethod(methodName),
+                            getCallOptions(methodName), request
+                    ));
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
 
-        return ClientCalls.blockingUnaryCall(
+    private static Object getCoalescingKey(String methodName, Message request) {
+        // Requests that differ only in correlation ids are identical
+        var field = request.getDescriptorForType().findFieldByName("correlation_id");
+        var bytes = field != null
+                ? request.toBuilder().clearField(field).build().toByteString()
+                : request.toByteString();
+        return Map.entry(methodName, bytes);
+    }
+
+    /**
+     * Calls a remote server streaming method via GRPC protocol.
+     * Messages are received lazily as the returned iterator is consumed,
+     * so only a few of them are buffered at any time.
+     *
+     * @param methodName    a method name to called
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param request       (optional) request object.
+     * @return an iterator over received messages.
+     */
+    protected <TRequest, TResponse> Iterator<TResponse> callStream(String methodName, String correlationId, TRequest request) {
+        return ClientCalls.blockingServerStreamingCall(
                 _channel,
-                (MethodDescriptor<TRequest, TResponse>) method.get(),
-                CallOptions.DEFAULT, request
+                this.<TRequest, TResponse>getMethod(methodName),
+                getCallOptions(methodName), request
+        );
+    }
+
+    /**
+     * Calls a remote client streaming method via GRPC protocol.
+     * When the response observer implements {@link ClientResponseObserver}
+     * it receives the request stream before the call starts and can use it for flow control.
+     *
+     * @param methodName       a method name to called
+     * @param correlationId    (optional) transaction id to trace execution through call chain.
+     * @param responseObserver an observer to receive the response.
+     * @return an observer to send the stream of requests.
+     */
+    protected <TRequest, TResponse> StreamObserver<TRequest> callClientStream(String methodName, String correlationId,
+                                                                             StreamObserver<TResponse> responseObserver) {
+        return ClientCalls.asyncClientStreamingCall(
+                _channel.newCall(this.<TRequest, TResponse>getMethod(methodName), getCallOptions(methodName)),
+                responseObserver
         );
     }
+
+    /**
+     * Calls a remote server streaming method that returns items in chunks
+     * and exposes them as a lazy stream of items.
+     * Closing the stream before it is fully consumed cancels the call.
+     *
+     * @param methodName    a method name to called
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param request       (optional) request object.
+     * @param unpack        a function that extracts items from a received chunk.
+     * @return a lazy stream of received items.
+     */
+    protected <TRequest, TChunk, TItem> Stream<TItem> callChunkedStream(String methodName, String correlationId,
+                                                                       TRequest request, Function<TChunk, List<TItem>> unpack) {
+        var context = Context.current().withCancellation();
+        Iterator<TChunk> chunks;
+        try {
+            chunks = context.call(() -> this.<TRequest, TChunk>callStream(methodName, correlationId, request));
+        } catch (Exception ex) {
+            context.cancel(ex);
+            throw new RuntimeException(ex);
+        }
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED), false)
+                .flatMap(chunk -> unpack.apply(chunk).stream())
+                .onClose(() -> context.cancel(null));
+    }
 }
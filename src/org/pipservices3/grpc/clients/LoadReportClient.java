@@ -0,0 +1,66 @@
+package org.pipservices3.grpc.clients;
+
+import org.pipservices3.grpc.load.LoadReport;
+import org.pipservices3.grpc.load.LoadReportRequest;
+import org.pipservices3.grpc.load.LoadReporterGrpc;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Client that watches out-of-band load reports of {@link org.pipservices3.grpc.services.GrpcEndpoint}.
+ * Reports carry the number of calls in progress, the number of calls waiting in the scheduler queue
+ * and process CPU utilization, so callers can weight backends without probing them with real calls.
+ * <p>
+ * ### Configuration parameters ###
+ * <pre>
+ * - connection(s):
+ *   - discovery_key:         (optional) a key to retrieve the connection from {@link org.pipservices3.components.connect.IDiscovery}
+ *   - protocol:              connection protocol: http, https, inproc or unix
+ *   - host:                  host name or IP address
+ *   - port:                  port number
+ *   - uri:                   resource URI or connection string with all parameters in it
+ * - options:
+ *   - connect_timeout:       connection timeout in milliseconds (default: 10 sec)
+ * </pre>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * var client = new LoadReportClient();
+ * client.configure(ConfigParams.fromTuples(
+ *         "connection.protocol", "http",
+ *         "connection.host", "localhost",
+ *         "connection.port", 8080
+ * ));
+ * client.open(null);
+ *
+ * try (var reports = client.watchLoad("123", 1000)) {
+ *     reports.forEach(report -> weights.update(backend, report));
+ * }
+ * }
+ * </pre>
+ */
+public class LoadReportClient extends GrpcClient {
+
+    /**
+     * Creates a new instance of the client.
+     */
+    public LoadReportClient() {
+        super(LoadReporterGrpc.getServiceDescriptor());
+    }
+
+    /**
+     * Watches load reports of the endpoint. Reports are received lazily as the returned stream is consumed.
+     * Closing the stream stops watching.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param interval      an interval between reports in milliseconds, 0 for the endpoint default.
+     * @return a stream of load reports.
+     */
+    public Stream<LoadReport> watchLoad(String correlationId, long interval) {
+        var request = LoadReportRequest.newBuilder().setInterval(interval).build();
+        return this.<LoadReportRequest, LoadReport, LoadReport>callChunkedStream("watch_load", correlationId,
+                request, List::of);
+    }
+}
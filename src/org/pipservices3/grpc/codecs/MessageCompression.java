@@ -0,0 +1,173 @@
+package org.pipservices3.grpc.codecs;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.*;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IConfigurable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compression settings for GRPC calls with per-method codec selection.
+ * <p>
+ * Supported codecs are "gzip" and "zstd". Messages smaller than the minimum size are sent
+ * uncompressed even when the method uses compression, since compressing them costs CPU
+ * without saving bytes. Incoming messages compressed by any supported codec are always accepted.
+ * <p>
+ * ### Configuration parameters ###
+ * <pre>
+ * - compression:
+ *   - codec:                 default codec for all methods: none, gzip or zstd (default: none)
+ *   - min_size:              minimum size of messages in bytes to compress (default: 1024)
+ *   - level:                 zstd compression level (default: 3)
+ *   - methods:
+ *     - [method]:            codec for the method, overrides the default one
+ * </pre>
+ *
+ * @see org.pipservices3.grpc.services.GrpcEndpoint
+ * @see org.pipservices3.grpc.clients.GrpcClient
+ */
+public class MessageCompression implements IConfigurable {
+    public static final String NONE = "none";
+
+    private String _codec = NONE;
+    private int _minSize = 1024;
+    private int _level = 3;
+    private final Map<String, String> _methodCodecs = new HashMap<>();
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     */
+    @Override
+    public void configure(ConfigParams config) {
+        _codec = normalizeCodec(config.getAsStringWithDefault("compression.codec", _codec));
+        _minSize = config.getAsIntegerWithDefault("compression.min_size", _minSize);
+        _level = config.getAsIntegerWithDefault("compression.level", _level);
+
+        var methods = config.getSection("compression.methods");
+        for (var method : methods.keySet())
+            _methodCodecs.put(method, normalizeCodec(methods.getAsString(method)));
+    }
+
+    private static String normalizeCodec(String codec) {
+        if (codec == null || codec.isBlank() || "identity".equalsIgnoreCase(codec))
+            return NONE;
+
+        codec = codec.trim().toLowerCase();
+        if (!NONE.equals(codec) && !"gzip".equals(codec) && !ZstdCodec.ENCODING.equals(codec))
+            throw new IllegalArgumentException("Unsupported compression codec " + codec);
+        return codec;
+    }
+
+    /**
+     * Checks if any method uses compression.
+     *
+     * @return true if compression is enabled and false otherwise.
+     */
+    public boolean isEnabled() {
+        return !NONE.equals(_codec) || _methodCodecs.values().stream().anyMatch(c -> !NONE.equals(c));
+    }
+
+    /**
+     * Gets a codec used to compress messages of the method.
+     *
+     * @param methodName a method name without the service name.
+     * @return the codec name or null if messages are not compressed.
+     */
+    public String getCodec(String methodName) {
+        var codec = _methodCodecs.getOrDefault(methodName, _codec);
+        return NONE.equals(codec) ? null : codec;
+    }
+
+    /**
+     * Checks if a message is large enough to be compressed.
+     *
+     * @param message a message to send.
+     * @return true if the message shall be compressed and false otherwise.
+     */
+    public boolean shouldCompress(Object message) {
+        return !(message instanceof MessageLite) || ((MessageLite) message).getSerializedSize() >= _minSize;
+    }
+
+    /**
+     * Creates a registry of compressors for all supported codecs.
+     *
+     * @return a compressor registry for a server or a channel builder.
+     */
+    public CompressorRegistry createCompressorRegistry() {
+        var registry = CompressorRegistry.newEmptyInstance();
+        registry.register(Codec.Identity.NONE);
+        registry.register(new Codec.Gzip());
+        registry.register(new ZstdCodec(_level));
+        return registry;
+    }
+
+    /**
+     * Creates a registry of decompressors for all supported codecs.
+     * All of them are advertised to the other side in "grpc-accept-encoding" header.
+     *
+     * @return a decompressor registry for a server or a channel builder.
+     */
+    public DecompressorRegistry createDecompressorRegistry() {
+        return DecompressorRegistry.getDefaultInstance().with(new ZstdCodec(_level), true);
+    }
+
+    private static String getMethodName(MethodDescriptor<?, ?> method) {
+        var splitName = method.getFullMethodName().split("/");
+        return splitName.length > 1 ? splitName[1] : method.getFullMethodName();
+    }
+
+    /**
+     * Creates a server interceptor that compresses responses of configured methods.
+     * Responses are compressed only when the client accepts the codec.
+     *
+     * @return a server interceptor.
+     */
+    public ServerInterceptor createServerInterceptor() {
+        return new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                var codec = getCodec(getMethodName(call.getMethodDescriptor()));
+                if (codec == null)
+                    return next.startCall(call, headers);
+
+                call.setCompression(codec);
+                return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+                    @Override
+                    public void sendMessage(RespT message) {
+                        delegate().setMessageCompression(shouldCompress(message));
+                        super.sendMessage(message);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    /**
+     * Creates a client interceptor that compresses requests of configured methods.
+     * The server shall have the codec registered.
+     *
+     * @return a client interceptor.
+     */
+    public ClientInterceptor createClientInterceptor() {
+        return new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+                var codec = getCodec(getMethodName(method));
+                if (codec == null)
+                    return next.newCall(method, callOptions);
+
+                return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions.withCompression(codec))) {
+                    @Override
+                    public void sendMessage(ReqT message) {
+                        delegate().setMessageCompression(shouldCompress(message));
+                        super.sendMessage(message);
+                    }
+                };
+            }
+        };
+    }
+}
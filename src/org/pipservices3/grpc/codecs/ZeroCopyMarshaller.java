@@ -0,0 +1,196 @@
+package org.pipservices3.grpc.codecs;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.Detachable;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.HasByteBuffer;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import io.grpc.protobuf.lite.ProtoLiteUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Protobuf marshaller that parses large messages directly from transport buffers.
+ * <p>
+ * Messages smaller than the threshold, or received from transports that do not expose
+ * their buffers, are parsed by the standard protobuf marshaller. Larger messages are parsed
+ * from the {@link ByteBuffer}s of the received stream without copying them into an intermediate array.
+ * <p>
+ * In aliasing mode the stream is detached from the transport and bytes fields of parsed messages
+ * refer to the transport buffers instead of copies. The buffers are retained until
+ * {@link #release} is called for the message, so it shall be used only when the message lifetime
+ * is known, like a request of a unary call that is released when the call is completed.
+ * Call handlers wrapped by {@link #releaseOnClose} release their requests automatically.
+ * <p>
+ * Messages are serialized by the standard marshaller, which drains them directly
+ * into the pooled buffers of the transport.
+ *
+ * @param <T> the type of messages.
+ */
+public class ZeroCopyMarshaller<T extends MessageLite> implements MethodDescriptor.PrototypeMarshaller<T> {
+    private final T _prototype;
+    private final MethodDescriptor.Marshaller<T> _marshaller;
+    private final int _threshold;
+    private final boolean _aliasing;
+    private final Map<T, InputStream> _retained = new IdentityHashMap<>();
+
+    /**
+     * Creates a new instance of the marshaller.
+     *
+     * @param prototype a default instance of the messages.
+     * @param threshold a minimum size of messages in bytes to parse them from transport buffers.
+     * @param aliasing  true to keep transport buffers and refer to them from parsed messages.
+     */
+    public ZeroCopyMarshaller(T prototype, int threshold, boolean aliasing) {
+        _prototype = prototype;
+        _marshaller = ProtoLiteUtils.marshaller(prototype);
+        _threshold = threshold;
+        _aliasing = aliasing;
+    }
+
+    @Override
+    public Class<T> getMessageClass() {
+        return (Class<T>) _prototype.getClass();
+    }
+
+    @Override
+    public T getMessagePrototype() {
+        return _prototype;
+    }
+
+    /**
+     * Gets the number of parsed messages that retain transport buffers.
+     *
+     * @return the number of retained messages.
+     */
+    public int getRetainedCount() {
+        synchronized (_retained) {
+            return _retained.size();
+        }
+    }
+
+    @Override
+    public InputStream stream(T value) {
+        return _marshaller.stream(value);
+    }
+
+    @Override
+    public T parse(InputStream stream) {
+        try {
+            if (!(stream instanceof KnownLength) || !(stream instanceof HasByteBuffer)
+                    || !((HasByteBuffer) stream).byteBufferSupported() || stream.available() < _threshold)
+                return _marshaller.parse(stream);
+
+            if (_aliasing && stream instanceof Detachable) {
+                // Take ownership of the buffers, they are freed on release
+                var detached = ((Detachable) stream).detach();
+                try {
+                    var message = parse(detached, true);
+                    synchronized (_retained) {
+                        _retained.put(message, detached);
+                    }
+                    return message;
+                } catch (Exception ex) {
+                    detached.close();
+                    throw ex;
+                }
+            }
+
+            return parse(stream, false);
+        } catch (IOException ex) {
+            throw Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(ex).asRuntimeException();
+        }
+    }
+
+    private T parse(InputStream stream, boolean aliasing) throws IOException {
+        // Wrap transport buffers without copying, multiple buffers are joined as a rope
+        var buffered = (HasByteBuffer) stream;
+        var buffers = new ArrayList<ByteString>();
+        while (stream.available() > 0) {
+            ByteBuffer buffer = buffered.getByteBuffer();
+            var length = buffer.remaining();
+            buffers.add(UnsafeByteOperations.unsafeWrap(buffer));
+            stream.skip(length);
+        }
+
+        var bytes = buffers.size() == 1 ? buffers.get(0) : ByteString.copyFrom(buffers);
+        var input = bytes.newCodedInput();
+        input.enableAliasing(aliasing);
+        input.setSizeLimit(Integer.MAX_VALUE);
+
+        return (T) _prototype.getParserForType().parseFrom(input);
+    }
+
+    /**
+     * Wraps a call handler to release received requests when the call is completed or cancelled.
+     * Requests are released even when the call is cancelled before the handler is invoked.
+     *
+     * @param handler a call handler that receives messages parsed by this marshaller.
+     * @return the wrapped call handler.
+     */
+    public <TResponse> ServerCallHandler<T, TResponse> releaseOnClose(ServerCallHandler<T, TResponse> handler) {
+        return (call, headers) -> new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(handler.startCall(call, headers)) {
+            private T _request;
+
+            @Override
+            public void onMessage(T message) {
+                _request = message;
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onCancel() {
+                try {
+                    super.onCancel();
+                } finally {
+                    releaseRequest();
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                try {
+                    super.onComplete();
+                } finally {
+                    releaseRequest();
+                }
+            }
+
+            private void releaseRequest() {
+                if (_request != null)
+                    release(_request);
+            }
+        };
+    }
+
+    /**
+     * Releases transport buffers retained by a message parsed in aliasing mode.
+     * The message shall not be used after that.
+     *
+     * @param message a parsed message.
+     */
+    public void release(T message) {
+        InputStream stream;
+        synchronized (_retained) {
+            stream = _retained.remove(message);
+        }
+
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException ex) {
+                // Ignore errors while releasing buffers
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.pipservices3.grpc.codecs;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IConfigurable;
+import org.pipservices3.commons.errors.ConfigException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set of shared zstd dictionaries to compress small JSON payloads of commandable calls.
+ * <p>
+ * Small and repetitive JSON documents compress poorly on their own, since a compressor
+ * has little data to learn from. A dictionary trained on sampled payloads carries that
+ * knowledge, so both sides that have it can compress each message to a fraction of its size.
+ * <p>
+ * Dictionaries are identified by the ids zstd stores in them, and the id is sent along
+ * with compressed payloads. The last added dictionary is used to compress outgoing payloads,
+ * the earlier ones are kept to decompress payloads from peers that were not updated yet.
+ * To roll a new dictionary add it to services first and then to clients.
+ * <p>
+ * ### Configuration parameters ###
+ * <pre>
+ * - compression:
+ *   - dictionaries:          comma-separated paths to dictionary files, the last one is current
+ *   - dictionary_min_size:   minimum size of payloads in bytes to compress (default: 64)
+ *   - level:                 zstd compression level (default: 3)
+ * </pre>
+ *
+ * @see #train
+ */
+public class ZstdDictionaries implements IConfigurable {
+    private final Map<Integer, Dictionary> _dictionaries = new ConcurrentHashMap<>();
+    private volatile int _currentId = 0;
+    private int _minSize = 64;
+    private int _level = 3;
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        _minSize = config.getAsIntegerWithDefault("compression.dictionary_min_size", _minSize);
+        _level = config.getAsIntegerWithDefault("compression.level", _level);
+
+        var paths = config.getAsNullableString("compression.dictionaries");
+        if (paths == null)
+            return;
+
+        for (var path : paths.split(",")) {
+            if (path.isBlank())
+                continue;
+
+            try {
+                add(Files.readAllBytes(Path.of(path.trim())));
+            } catch (IOException | IllegalArgumentException ex) {
+                throw (ConfigException) new ConfigException(null, "CANNOT_LOAD_DICTIONARY", "Cannot load zstd dictionary " + path)
+                        .withDetails("path", path).withCause(ex);
+            }
+        }
+    }
+
+    /**
+     * Adds a dictionary and makes it current to compress outgoing payloads.
+     *
+     * @param dictionary a dictionary trained by {@link #train}.
+     * @return the dictionary id.
+     */
+    public int add(byte[] dictionary) {
+        var id = (int) Zstd.getDictIdFromDict(dictionary);
+        if (id == 0)
+            throw new IllegalArgumentException("Zstd dictionary has no id");
+
+        _dictionaries.put(id, new Dictionary(dictionary, _level));
+        _currentId = id;
+        return id;
+    }
+
+    /**
+     * Gets the id of the dictionary used to compress outgoing payloads.
+     *
+     * @return the current dictionary id or 0 when there are no dictionaries.
+     */
+    public int getCurrentId() {
+        return _currentId;
+    }
+
+    /**
+     * Checks if the dictionary is available.
+     *
+     * @param id a dictionary id.
+     * @return true if the dictionary can be used and false otherwise.
+     */
+    public boolean contains(int id) {
+        return id != 0 && _dictionaries.containsKey(id);
+    }
+
+    /**
+     * Checks if a payload is large enough to be compressed.
+     *
+     * @param json a JSON payload.
+     * @return true if the payload shall be compressed and false otherwise.
+     */
+    public boolean shouldCompress(String json) {
+        return json != null && json.length() >= _minSize;
+    }
+
+    /**
+     * Compresses a payload with the dictionary.
+     *
+     * @param id   a dictionary id.
+     * @param json a JSON payload.
+     * @return the compressed payload.
+     */
+    public byte[] compress(int id, String json) {
+        return Zstd.compress(json.getBytes(StandardCharsets.UTF_8), getDictionary(id).compress);
+    }
+
+    /**
+     * Decompresses a payload with the dictionary.
+     *
+     * @param id   a dictionary id.
+     * @param data a compressed payload.
+     * @return the decompressed JSON payload.
+     */
+    public String decompress(int id, byte[] data) {
+        var size = Zstd.decompressedSize(data);
+        if (size <= 0 || size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid size of compressed payload");
+
+        return new String(Zstd.decompress(data, getDictionary(id).decompress, (int) size), StandardCharsets.UTF_8);
+    }
+
+    private Dictionary getDictionary(int id) {
+        var dictionary = _dictionaries.get(id);
+        if (dictionary == null)
+            throw new IllegalArgumentException("Zstd dictionary " + id + " was not found");
+        return dictionary;
+    }
+
+    /**
+     * Trains a dictionary on sampled payloads. Samples shall be representative
+     * of real traffic, a few thousand captured payloads usually give good results.
+     *
+     * @param samples        sampled JSON payloads.
+     * @param dictionarySize a maximum size of the dictionary in bytes, like 16 KB.
+     * @return the trained dictionary.
+     */
+    public static byte[] train(Iterable<String> samples, int dictionarySize) {
+        var size = 0;
+        for (var sample : samples)
+            size += sample.getBytes(StandardCharsets.UTF_8).length;
+
+        var trainer = new ZstdDictTrainer(size, dictionarySize);
+        for (var sample : samples)
+            trainer.addSample(sample.getBytes(StandardCharsets.UTF_8));
+        return trainer.trainSamples();
+    }
+
+    private static class Dictionary {
+        final ZstdDictCompress compress;
+        final ZstdDictDecompress decompress;
+
+        Dictionary(byte[] dictionary, int level) {
+            compress = new ZstdDictCompress(dictionary, level);
+            decompress = new ZstdDictDecompress(dictionary);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package org.pipservices3.grpc.services;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.grpc.blobs.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * Service that uploads and downloads large binary blobs via GRPC streams.
+ * <p>
+ * Blobs are transferred in chunks, each chunk carries its offset and CRC32C checksum.
+ * Interrupted transfers can be resumed from the last received offset: {@code get_blob_info}
+ * returns the size of an incomplete upload, and downloads accept a starting offset.
+ * Downloaded chunks are read from memory-mapped files and sent without intermediate copies.
+ * Uploads larger than "options.file_max_size" of the {@link GrpcEndpoint} are rejected.
+ * Only one upload of a blob can be in progress, concurrent uploads of the same blob are rejected
+ * with ABORTED status and can be retried later.
+ * <p>
+ * ### Configuration parameters ###
+ * <pre>
+ * - dependencies:
+ *   - endpoint:              override for GRPC Endpoint dependency
+ * - connection(s):
+ *   - discovery_key:         (optional) a key to retrieve the connection from {@link org.pipservices3.components.connect.IDiscovery}
+ *   - protocol:              connection protocol: http or https
+ *   - host:                  host name or IP address
+ *   - port:                  port number
+ *   - uri:                   resource URI or connection string with all parameters in it
+ * - options:
+ *   - path:                  directory to store blobs (default: ./blobs)
+ *   - chunk_size:            size of downloaded chunks in bytes (default: 1 MB)
+ * </pre>
+ * <p>
+ * ### References ###
+ * <p>
+ * - *:logger:*:*:1.0              (optional) {@link org.pipservices3.components.log.ILogger} components to pass log messages
+ * - *:counters:*:*:1.0            (optional) {@link org.pipservices3.components.count.ICounters} components to pass collected measurements
+ * - *:endpoint:grpc:*:1.0         (optional) {@link GrpcEndpoint} reference
+ *
+ * @see org.pipservices3.grpc.clients.BlobGrpcClient
+ */
+public class BlobGrpcService extends GrpcService {
+    private static final Pattern BLOB_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_CHUNK_SIZE = 3 * 1024 * 1024;
+
+    private String _path = "./blobs";
+    private int _chunkSize = 1024 * 1024;
+    private final Set<String> _uploading = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new instance of the service.
+     */
+    public BlobGrpcService() {
+        super(BlobsGrpc.getServiceDescriptor());
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        super.configure(config);
+
+        this._path = config.getAsStringWithDefault("options.path", this._path);
+        this._chunkSize = Math.min(MAX_CHUNK_SIZE, config.getAsIntegerWithDefault("options.chunk_size", this._chunkSize));
+    }
+
+    private long getFileMaxSize() {
+        return this._endpoint != null ? this._endpoint.getFileMaxSize() : Long.MAX_VALUE;
+    }
+
+    private Path getBlobPath(String blobId, String extension) {
+        if (blobId == null || !BLOB_ID_PATTERN.matcher(blobId).matches() || blobId.startsWith("."))
+            throw Status.INVALID_ARGUMENT.withDescription("Invalid blob id " + blobId).asRuntimeException();
+        return Paths.get(this._path, blobId + extension);
+    }
+
+    private static int checksum(ByteBuffer data) {
+        var crc = new CRC32C();
+        crc.update(data.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static int checksum(FileChannel channel, long size) throws IOException {
+        var crc = new CRC32C();
+        for (long position = 0; position < size; position += MAP_WINDOW_SIZE)
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_SIZE, size - position)));
+        return (int) crc.getValue();
+    }
+
+    private BlobInfo readInfo(String blobId) throws IOException {
+        var info = BlobInfo.newBuilder().setBlobId(blobId);
+
+        var blobPath = getBlobPath(blobId, "");
+        if (Files.exists(blobPath)) {
+            var checksum = Files.readString(getBlobPath(blobId, ".crc"), StandardCharsets.UTF_8).trim();
+            return info.setSize(Files.size(blobPath))
+                    .setChecksum(Integer.parseUnsignedInt(checksum))
+                    .setCompleted(true)
+                    .build();
+        }
+
+        var partPath = getBlobPath(blobId, ".part");
+        if (Files.exists(partPath))
+            info.setSize(Files.size(partPath));
+
+        return info.build();
+    }
+
+    private static void fail(StreamObserver<?> responseObserver, Exception ex) {
+        if (ex instanceof StatusRuntimeException)
+            responseObserver.onError(ex);
+        else
+            responseObserver.onError(Status.INTERNAL.withDescription(ex.getMessage()).withCause(ex).asRuntimeException());
+    }
+
+    private void getBlobInfo(BlobIdRequest request, StreamObserver<BlobInfo> responseObserver) {
+        var timing = this.instrument(request.getCorrelationId(), "blobs.get_blob_info");
+        try {
+            responseObserver.onNext(readInfo(request.getBlobId()));
+            responseObserver.onCompleted();
+        } catch (Exception ex) {
+            timing.endFailure(ex);
+            fail(responseObserver, ex);
+        } finally {
+            timing.endTiming();
+        }
+    }
+
+    private void download(BlobDownloadRequest request, StreamObserver<BlobChunk> responseObserver) {
+        FileChannel channel = null;
+        try {
+            var blobPath = getBlobPath(request.getBlobId(), "");
+            if (!Files.exists(blobPath))
+                throw Status.NOT_FOUND.withDescription("Blob " + request.getBlobId() + " was not found").asRuntimeException();
+
+            channel = FileChannel.open(blobPath, StandardOpenOption.READ);
+            var size = channel.size();
+            if (request.getOffset() < 0 || request.getOffset() > size)
+                throw Status.OUT_OF_RANGE.withDescription("Offset " + request.getOffset() + " is outside of blob").asRuntimeException();
+
+            var chunkSize = request.getChunkSize() > 0 ? Math.min(request.getChunkSize(), MAX_CHUNK_SIZE) : this._chunkSize;
+            var chunks = new ChunkIterator(channel, request.getBlobId(), request.getOffset(), size, chunkSize);
+
+            // The stream closes the iterator when the call is completed, failed or cancelled
+            this.createOutboundStream(responseObserver, chunks).start();
+        } catch (Exception ex) {
+            closeChannel(channel);
+            fail(responseObserver, ex);
+        }
+    }
+
+    private static void closeChannel(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            // Ignore errors while releasing the file
+        }
+    }
+
+    private StreamObserver<BlobChunk> upload(StreamObserver<BlobInfo> responseObserver) {
+        return new StreamObserver<>() {
+            private FileChannel _channel;
+            private String _blobId;
+            private long _position;
+            private boolean _finished = false;
+            private boolean _locked = false;
+
+            private void open(BlobChunk chunk) throws IOException {
+                _blobId = chunk.getBlobId();
+
+                // Two uploads of the same blob would write into the same partial file
+                if (!_uploading.add(_blobId))
+                    throw Status.ABORTED.withDescription("Blob " + _blobId
+                            + " is already being uploaded").asRuntimeException();
+                _locked = true;
+
+                var partPath = getBlobPath(_blobId, ".part");
+                Files.createDirectories(partPath.getParent());
+
+                _channel = FileChannel.open(partPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                var size = _channel.size();
+
+                // Resume from the stored offset or restart from an earlier one
+                if (chunk.getOffset() < 0 || chunk.getOffset() > size)
+                    throw Status.OUT_OF_RANGE.withDescription("Upload of blob " + _blobId
+                            + " can be resumed only from offset " + size).asRuntimeException();
+                if (chunk.getOffset() < size)
+                    _channel.truncate(chunk.getOffset());
+
+                _position = chunk.getOffset();
+                _channel.position(_position);
+            }
+
+            private void close() {
+                if (_channel != null) {
+                    try {
+                        _channel.close();
+                    } catch (IOException ex) {
+                        // Ignore errors while releasing the file
+                    }
+                    _channel = null;
+                }
+                if (_locked) {
+                    _uploading.remove(_blobId);
+                    _locked = false;
+                }
+            }
+
+            private void complete() throws IOException {
+                _channel.force(false);
+                var checksum = checksum(_channel, _position);
+                _channel.close();
+                _channel = null;
+
+                // The blob stays locked until the partial file is moved in place
+                Files.writeString(getBlobPath(_blobId, ".crc"), Integer.toUnsignedString(checksum), StandardCharsets.UTF_8);
+                Files.move(getBlobPath(_blobId, ".part"), getBlobPath(_blobId, ""),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                close();
+            }
+
+            @Override
+            public void onNext(BlobChunk chunk) {
+                if (_finished) return;
+
+                try {
+                    if (_channel == null)
+                        open(chunk);
+                    else if (!chunk.getBlobId().equals(_blobId) || chunk.getOffset() != _position)
+                        throw Status.INVALID_ARGUMENT.withDescription("Chunk at offset " + chunk.getOffset()
+                                + " does not continue blob " + _blobId).asRuntimeException();
+
+                    var data = chunk.getData();
+                    if (_position + data.size() > getFileMaxSize())
+                        throw Status.RESOURCE_EXHAUSTED.withDescription("Blob " + _blobId + " exceeds maximum file size "
+                                + getFileMaxSize()).asRuntimeException();
+
+                    var buffers = data.asReadOnlyByteBufferList().toArray(new ByteBuffer[0]);
+                    var crc = new CRC32C();
+                    for (var buffer : buffers)
+                        crc.update(buffer.duplicate());
+                    if ((int) crc.getValue() != chunk.getChecksum())
+                        throw Status.DATA_LOSS.withDescription("Checksum mismatch in blob " + _blobId
+                                + " at offset " + _position).asRuntimeException();
+
+                    while (hasRemaining(buffers))
+                        _channel.write(buffers);
+                    _position += data.size();
+                    _counters.increment("blobs.upload.bytes", data.size());
+
+                    if (chunk.getLast()) {
+                        complete();
+                        _finished = true;
+                        responseObserver.onNext(readInfo(_blobId));
+                        responseObserver.onCompleted();
+                    }
+                } catch (Exception ex) {
+                    _finished = true;
+                    close();
+                    fail(responseObserver, ex);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // Keep the received part to resume upload later
+                _finished = true;
+                close();
+            }
+
+            @Override
+            public void onCompleted() {
+                if (_finished) return;
+                _finished = true;
+                close();
+
+                // Client paused the upload, report the offset to resume from
+                try {
+                    responseObserver.onNext(_blobId != null ? readInfo(_blobId) : BlobInfo.getDefaultInstance());
+                    responseObserver.onCompleted();
+                } catch (Exception ex) {
+                    fail(responseObserver, ex);
+                }
+            }
+        };
+    }
+
+    private static boolean hasRemaining(ByteBuffer[] buffers) {
+        for (var buffer : buffers)
+            if (buffer.hasRemaining()) return true;
+        return false;
+    }
+
+    /**
+     * Reads chunks of a blob from memory-mapped windows of the file.
+     * Chunk data wraps the mapped memory without copying.
+     */
+    private class ChunkIterator implements Iterator<BlobChunk>, AutoCloseable {
+        private final FileChannel _channel;
+        private final String _blobId;
+        private final long _size;
+        private final int _chunkSize;
+        private long _position;
+        private long _windowStart;
+        private MappedByteBuffer _window;
+        private boolean _sentLast = false;
+
+        ChunkIterator(FileChannel channel, String blobId, long offset, long size, int chunkSize) {
+            _channel = channel;
+            _blobId = blobId;
+            _position = offset;
+            _size = size;
+            _chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !_sentLast;
+        }
+
+        @Override
+        public BlobChunk next() {
+            if (_sentLast)
+                throw new NoSuchElementException();
+
+            try {
+                var length = (int) Math.min(_chunkSize, _size - _position);
+
+                if (_window == null || _position + length > _windowStart + _window.capacity()) {
+                    _windowStart = _position;
+                    _window = _channel.map(FileChannel.MapMode.READ_ONLY, _windowStart,
+                            Math.min(Math.max(MAP_WINDOW_SIZE, _chunkSize), _size - _windowStart));
+                }
+
+                var offset = (int) (_position - _windowStart);
+                var slice = _window.duplicate().position(offset).limit(offset + length).slice();
+                ByteString data = UnsafeByteOperations.unsafeWrap(slice);
+
+                var chunk = BlobChunk.newBuilder()
+                        .setBlobId(_blobId)
+                        .setOffset(_position)
+                        .setData(data)
+                        .setChecksum(checksum(slice))
+                        .setLast(_position + length >= _size)
+                        .build();
+
+                _position += length;
+                _sentLast = chunk.getLast();
+                _counters.increment("blobs.download.bytes", length);
+
+                if (_sentLast)
+                    close();
+
+                return chunk;
+            } catch (IOException ex) {
+                close();
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            _sentLast = true;
+            _window = null;
+            closeChannel(_channel);
+        }
+    }
+
+    /**
+     * Registers all service routes in GRPC endpoint.
+     */
+    @Override
+    public void register() {
+        this.registerMethod("get_blob_info", null, this::getBlobInfo);
+        this.registerServerStreamingMethod("download", null, this::download);
+        this.registerClientStreamingMethod("upload", null, this::upload);
+    }
+}
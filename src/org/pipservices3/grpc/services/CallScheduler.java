@@ -0,0 +1,370 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.*;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IConfigurable;
+import org.pipservices3.components.log.ILogger;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Priority-aware executor for incoming GRPC calls.
+ * <p>
+ * Calls carry their priority and tenant in the "x-priority" and "x-tenant" metadata headers.
+ * Calls with higher priority (interactive) always overtake calls with lower priority (batch).
+ * Within the same priority calls from different tenants are served using weighted fair queueing,
+ * so a single tenant that floods the service cannot inflate latency of the others.
+ * <p>
+ * ### Configuration parameters ###
+ * <pre>
+ * - scheduling:
+ *   - enabled:               turns on call scheduling (default: false)
+ *   - threads:               number of worker threads (default: number of processors)
+ *   - max_queue_size:        maximum number of queued calls, extra calls are rejected (default: 10000)
+ *   - default_priority:      priority for calls without "x-priority" header (default: normal)
+ *   - weights:
+ *     - [tenant]:            weight of the tenant in fair queueing (default: 1)
+ * </pre>
+ * <p>
+ * Priorities are sent as "interactive", "normal", "batch" or as a number where 0 is the highest.
+ * <p>
+ * Calls queued with an error callback are failed with UNAVAILABLE status when the scheduler
+ * is stopped, and with INTERNAL status when their handler throws an exception.
+ *
+ * @see GrpcEndpoint
+ */
+public class CallScheduler implements IConfigurable {
+    public static final int INTERACTIVE = 0;
+    public static final int NORMAL = 1;
+    public static final int BATCH = 2;
+
+    public static final Metadata.Key<String> PRIORITY_HEADER = Metadata.Key.of("x-priority", Metadata.ASCII_STRING_MARSHALLER);
+    public static final Metadata.Key<String> TENANT_HEADER = Metadata.Key.of("x-tenant", Metadata.ASCII_STRING_MARSHALLER);
+
+    static final Context.Key<Integer> PRIORITY_KEY = Context.key("pip-priority");
+    static final Context.Key<String> TENANT_KEY = Context.key("pip-tenant");
+
+    private static final int MAX_PRIORITY = 9;
+
+    private final Object _lock = new Object();
+    private final PriorityLevel[] _levels = new PriorityLevel[MAX_PRIORITY + 1];
+    private final Map<String, Double> _weights = new HashMap<>();
+    private final List<Thread> _workers = new ArrayList<>();
+    private final ILogger _logger;
+    private int _threads = Runtime.getRuntime().availableProcessors();
+    private int _maxQueueSize = 10000;
+    private int _defaultPriority = NORMAL;
+    private int _queueSize = 0;
+    private boolean _running = false;
+
+    public CallScheduler() {
+        this(null);
+    }
+
+    /**
+     * Creates a new instance of the scheduler.
+     *
+     * @param logger (optional) a logger to report errors of call handlers.
+     */
+    public CallScheduler(ILogger logger) {
+        _logger = logger;
+        for (int index = 0; index < _levels.length; index++)
+            _levels[index] = new PriorityLevel();
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     */
+    @Override
+    public void configure(ConfigParams config) {
+        _threads = config.getAsIntegerWithDefault("scheduling.threads", _threads);
+        _maxQueueSize = config.getAsIntegerWithDefault("scheduling.max_queue_size", _maxQueueSize);
+        _defaultPriority = parsePriority(config.getAsNullableString("scheduling.default_priority"), _defaultPriority);
+
+        var weights = config.getSection("scheduling.weights");
+        synchronized (_lock) {
+            for (var tenant : weights.keySet())
+                _weights.put(tenant, Math.max(0.01, weights.getAsDoubleWithDefault(tenant, 1)));
+        }
+    }
+
+    /**
+     * Converts priority header value into numeric priority.
+     *
+     * @param value        a priority name or number.
+     * @param defaultValue a priority to return when the value is missing or invalid.
+     * @return a numeric priority where 0 is the highest.
+     */
+    public static int parsePriority(String value, int defaultValue) {
+        if (value == null || value.isEmpty())
+            return defaultValue;
+
+        switch (value.toLowerCase()) {
+            case "interactive":
+            case "high":
+                return INTERACTIVE;
+            case "normal":
+                return NORMAL;
+            case "batch":
+            case "low":
+                return BATCH;
+        }
+
+        try {
+            return Math.max(0, Math.min(MAX_PRIORITY, Integer.parseInt(value)));
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Gets the number of calls waiting for execution.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueSize() {
+        synchronized (_lock) {
+            return _queueSize;
+        }
+    }
+
+    int getTenantCount() {
+        synchronized (_lock) {
+            var count = 0;
+            for (var level : _levels)
+                count += level._tenants.size();
+            return count;
+        }
+    }
+
+    /**
+     * Creates interceptor that reads priority and tenant from call headers
+     * and puts them into the call context.
+     *
+     * @return a server interceptor.
+     */
+    public ServerInterceptor createInterceptor() {
+        return new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                var priority = parsePriority(headers.get(PRIORITY_HEADER), _defaultPriority);
+                var tenant = headers.get(TENANT_HEADER);
+                var context = Context.current()
+                        .withValue(PRIORITY_KEY, priority)
+                        .withValue(TENANT_KEY, tenant != null ? tenant : "");
+                return Contexts.interceptCall(context, call, headers, next);
+            }
+        };
+    }
+
+    /**
+     * Starts worker threads.
+     */
+    public void start() {
+        synchronized (_lock) {
+            if (_running) return;
+            _running = true;
+
+            for (int index = 0; index < _threads; index++) {
+                var worker = new Thread(this::work, "grpc-scheduler-" + index);
+                worker.setDaemon(true);
+                worker.start();
+                _workers.add(worker);
+            }
+        }
+    }
+
+    /**
+     * Stops worker threads. Queued calls are failed with UNAVAILABLE status.
+     */
+    public void stop() {
+        var discarded = new ArrayList<ScheduledTask>();
+        synchronized (_lock) {
+            if (!_running) return;
+            _running = false;
+
+            for (var level : _levels)
+                level.clear(discarded);
+            _queueSize = 0;
+
+            _lock.notifyAll();
+        }
+
+        for (var worker : _workers)
+            worker.interrupt();
+        _workers.clear();
+
+        // Clients shall retry discarded calls on another instance
+        for (var task : discarded)
+            task.fail(Status.UNAVAILABLE.withDescription("Service is shutting down"));
+    }
+
+    /**
+     * Queues a task with priority and tenant taken from the current call context.
+     * The task is executed within the current call context.
+     *
+     * @param task a task to execute.
+     * @throws RejectedExecutionException when the scheduler is stopped or the queue is full.
+     */
+    public void execute(Runnable task) {
+        execute(task, null);
+    }
+
+    /**
+     * Queues a task with priority and tenant taken from the current call context.
+     * The task is executed within the current call context.
+     *
+     * @param task    a task to execute.
+     * @param onError (optional) a callback to fail the call when it is discarded by stop
+     *                or when the task throws an exception.
+     * @throws RejectedExecutionException when the scheduler is stopped or the queue is full.
+     */
+    public void execute(Runnable task, Consumer<Status> onError) {
+        var priority = PRIORITY_KEY.get();
+        var tenant = TENANT_KEY.get();
+        execute(Context.current().wrap(task), onError, priority != null ? priority : _defaultPriority, tenant != null ? tenant : "");
+    }
+
+    void execute(Runnable task, int priority, String tenant) {
+        execute(task, null, priority, tenant);
+    }
+
+    void execute(Runnable task, Consumer<Status> onError, int priority, String tenant) {
+        synchronized (_lock) {
+            if (!_running)
+                throw new RejectedExecutionException("Call scheduler is not running");
+            if (_queueSize >= _maxQueueSize)
+                throw new RejectedExecutionException("Call queue is full");
+
+            var weight = _weights.getOrDefault(tenant, 1.0);
+            _levels[Math.max(0, Math.min(MAX_PRIORITY, priority))].add(tenant, weight, new ScheduledTask(task, onError));
+            _queueSize++;
+
+            _lock.notify();
+        }
+    }
+
+    private ScheduledTask take() throws InterruptedException {
+        synchronized (_lock) {
+            while (_running) {
+                for (var level : _levels) {
+                    var task = level.poll();
+                    if (task != null) {
+                        _queueSize--;
+                        return task;
+                    }
+                }
+                _lock.wait();
+            }
+            return null;
+        }
+    }
+
+    private void work() {
+        try {
+            ScheduledTask task;
+            while ((task = take()) != null) {
+                try {
+                    task.action.run();
+                } catch (Throwable ex) {
+                    // Handlers that fail before responding would leave their calls open
+                    if (_logger != null)
+                        _logger.error(null, ex instanceof Exception ? (Exception) ex : new RuntimeException(ex),
+                                "Failed to execute scheduled GRPC call");
+                    task.fail(Status.INTERNAL.withDescription(ex.getMessage()).withCause(ex));
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class ScheduledTask {
+        final Runnable action;
+        final Consumer<Status> onError;
+
+        ScheduledTask(Runnable action, Consumer<Status> onError) {
+            this.action = action;
+            this.onError = onError;
+        }
+
+        void fail(Status status) {
+            if (onError == null) return;
+            try {
+                onError.accept(status);
+            } catch (Exception ex) {
+                // The call was already closed
+            }
+        }
+    }
+
+    /**
+     * Weighted fair queue of the tenants with the same priority.
+     * Each tenant advances its virtual time by 1/weight per served call
+     * and the tenant with the lowest virtual time is served first.
+     */
+    private static class PriorityLevel {
+        private final Map<String, TenantQueue> _tenants = new HashMap<>();
+        private final PriorityQueue<TenantQueue> _active = new PriorityQueue<>(
+                Comparator.comparingDouble((TenantQueue q) -> q.virtualTime).thenComparingLong(q -> q.sequence));
+        private double _virtualTime = 0;
+        private long _sequence = 0;
+
+        void add(String tenant, double weight, ScheduledTask task) {
+            var queue = _tenants.computeIfAbsent(tenant, TenantQueue::new);
+            queue.weight = weight;
+            queue.tasks.add(task);
+
+            if (queue.tasks.size() == 1) {
+                // Idle tenants do not accumulate credit
+                queue.virtualTime = Math.max(queue.virtualTime, _virtualTime);
+                queue.sequence = _sequence++;
+                _active.add(queue);
+            }
+        }
+
+        ScheduledTask poll() {
+            var queue = _active.poll();
+            if (queue == null)
+                return null;
+
+            var task = queue.tasks.poll();
+            _virtualTime = queue.virtualTime;
+            queue.virtualTime += 1.0 / queue.weight;
+
+            if (!queue.tasks.isEmpty()) {
+                queue.sequence = _sequence++;
+                _active.add(queue);
+            } else {
+                // Idle tenants are forgotten, so clients cannot grow the map with random tenant ids
+                _tenants.remove(queue.tenant);
+            }
+
+            return task;
+        }
+
+        void clear(List<ScheduledTask> discarded) {
+            for (var queue : _tenants.values())
+                discarded.addAll(queue.tasks);
+            _tenants.clear();
+            _active.clear();
+            _virtualTime = 0;
+        }
+    }
+
+    private static class TenantQueue {
+        final String tenant;
+        final ArrayDeque<ScheduledTask> tasks = new ArrayDeque<>();
+        double weight = 1;
+        double virtualTime = 0;
+        long sequence = 0;
+
+        TenantQueue(String tenant) {
+            this.tenant = tenant;
+        }
+    }
+}
@@ -1,16 +1,40 @@
 package org.pipservices3.grpc.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.protobuf.ByteString;
+import io.grpc.Context;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
 import org.pipservices3.commons.commands.CommandSet;
 import org.pipservices3.commons.commands.ICommandable;
+import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.convert.JsonConverter;
+import org.pipservices3.commons.errors.ConfigException;
 import org.pipservices3.commons.errors.ErrorDescriptionFactory;
+import org.pipservices3.commons.errors.InvalidStateException;
 import org.pipservices3.commons.errors.InvocationException;
 import org.pipservices3.commons.refer.ReferenceException;
 import org.pipservices3.commons.run.Parameters;
-import org.pipservices3.grpc.commandable.CommandableGrpc;
-import org.pipservices3.grpc.commandable.ErrorDescription;
-import org.pipservices3.grpc.commandable.InvokeReply;
-import org.pipservices3.grpc.commandable.InvokeRequest;
+import org.pipservices3.commons.validate.Schema;
+import org.pipservices3.grpc.cache.SingleFlight;
+import org.pipservices3.grpc.cache.ExpiringCache;
+import org.pipservices3.grpc.cache.TinyLfuCache;
+import org.pipservices3.grpc.codecs.ZstdDictionaries;
+import org.pipservices3.grpc.commandable.*;
+import org.pipservices3.grpc.validate.CompiledValidator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 @FunctionalInterface
@@ -23,6 +47,48 @@ interface CommandFunction {
  * to operations automatically generated for commands defined in {@link ICommandable}.
  * Each command is exposed as invoke method that receives command name and parameters.
  * <p>
+ * Large loads can be sent via invoke_bulk method that receives a stream of invocations.
+ * The command name and correlation id are taken from the previous invocation when they are not set.
+ * Invocations are executed in parallel up to "options.bulk_parallelism"; the stream of requests
+ * is paused while all of them are in progress. Invocations of all bulk requests share a pool
+ * of "options.bulk_threads" threads, so concurrent bulk requests cannot exhaust server threads.
+ * The reply contains the number of succeeded and failed invocations and errors with indexes of failed invocations.
+ * <p>
+ * Clients can subscribe via subscribe method to events pushed by {@link #publish}.
+ * Each subscriber has a buffer of pending events limited by "options.subscribe_buffer_size".
+ * A pending event is superseded by a newer event with the same topic and key. Subscribers
+ * that fall behind and overflow their buffers are disconnected with RESOURCE_EXHAUSTED status.
+ * <p>
+ * Replies carry a version of the result returned by a function registered via {@link #registerCommandVersion}.
+ * With "options.result_versions" enabled, results of other commands are versioned by a hash of their JSON.
+ * When an invoke request carries the same version the reply is sent with not_modified flag and without the result.
+ * With a registered version function the command is not executed at all in this case.
+ * <p>
+ * Results of idempotent read commands can be cached. Caching is enabled per command
+ * by "cache.commands.[command name]" configuration parameters or {@link #registerCommandCache}.
+ * Cached replies are keyed by the method and canonical JSON of arguments, so the order of argument
+ * properties does not matter. The cache is bounded by the number of entries and uses W-TinyLFU eviction.
+ * Cached results are invalidated when they expire or explicitly via {@link #invalidateCache}.
+ * Hot cached replies are sent from their serialized bytes without protobuf encoding.
+ * <p>
+ * Arguments of commands with schemas registered via {@link #registerCommandSchema} are validated
+ * by compiled validators before commands are executed.
+ * <p>
+ * Concurrent identical invocations of commands listed in "options.coalesce_commands"
+ * share one execution of the command and receive the same result.
+ * <p>
+ * Invoke requests can carry an idempotency key to make retries of non-idempotent commands safe.
+ * Successful replies are stored by the method and the key for "idempotency.timeout",
+ * duplicates receive the stored reply without executing the command again,
+ * and concurrent duplicates wait for the first invocation. Failed invocations are not stored.
+ * When "idempotency.max_entries" is reached the oldest stored replies are evicted.
+ * <p>
+ * Arguments and results can be compressed with shared zstd dictionaries loaded from "compression.dictionaries"
+ * (see {@link ZstdDictionaries}). Results are compressed only with the dictionary the client declared in the request.
+ * <p>
+ * During warm-up of GRPC endpoint the service is invoked with a method that does not exist,
+ * so JSON and reply paths are exercised without side effects.
+ * <p>
  * Commandable services require only 3 lines of code to implement a robust external
  * GRPC-based remote interface.
  * <p>
@@ -38,6 +104,24 @@ interface CommandFunction {
  *   - host:                  host name or IP address
  *   - port:                  port number
  *   - uri:                   resource URI or connection string with all parameters in it
+ * - options:
+ *   - bulk_parallelism:      maximum number of invocations executed in parallel in one bulk request (default: 8)
+ *   - bulk_max_errors:       maximum number of errors returned in a bulk reply (default: 100)
+ *   - bulk_threads:          number of threads shared by all bulk requests (default: 16)
+ *   - subscribe_buffer_size: maximum number of events pending for one subscriber (default: 1000)
+ *   - result_versions:       true to version results of commands without version functions by hashes of their JSON (default: false)
+ *   - coalesce_commands:     comma-separated names of idempotent commands which concurrent identical invocations are coalesced
+ * - idempotency:
+ *   - timeout:               time in milliseconds to keep replies of invocations with idempotency keys (default: 10 min)
+ *   - max_entries:           maximum number of kept replies (default: 10000)
+ * - cache:
+ *   - max_entries:           maximum number of cached results (default: 10000)
+ *   - max_entry_size:        maximum size of a cached result JSON in characters (default: 1000000)
+ *   - commands:
+ *     - [command name]:      time to live of cached results of the command in milliseconds
+ * - compression:
+ *   - dictionaries:          comma-separated paths to zstd dictionary files, the last one is current
+ *   - dictionary_min_size:   minimum size of a result JSON in characters to compress (default: 64)
  * </pre>
  * <p>
  * ### References ###
@@ -79,6 +163,28 @@ interface CommandFunction {
  */
 public abstract class CommandableGrpcService extends GrpcService {
     private final String _name;
+    private int _bulkParallelism = 8;
+    private int _bulkMaxErrors = 100;
+    private int _bulkThreads = 16;
+    private ExecutorService _bulkExecutor;
+    private int _subscribeBufferSize = 1000;
+    private final List<EventSubscriber> _subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong _eventSequence = new AtomicLong();
+    private boolean _resultVersions = false;
+    private final Map<String, CommandFunction> _commandVersions = new ConcurrentHashMap<>();
+    private static final ObjectMapper _canonicalMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    private final Map<String, Long> _cacheTimeouts = new ConcurrentHashMap<>();
+    private int _cacheMaxEntries = 10000;
+    private int _cacheMaxEntrySize = 1000000;
+    private volatile TinyLfuCache<String, InvokeReply> _cache;
+    private final Set<String> _coalescedCommands = ConcurrentHashMap.newKeySet();
+    private final SingleFlight<String, InvokeReply> _commandFlight = new SingleFlight<>();
+    private long _idempotencyTimeout = 600000;
+    private ExpiringCache<String, InvokeReply> _idempotentReplies = new ExpiringCache<>(10000);
+    private final SingleFlight<String, InvokeReply> _idempotentFlight = new SingleFlight<>();
+    private final ZstdDictionaries _dictionaries = new ZstdDictionaries();
+    private final Map<String, CompiledValidator> _commandSchemas = new ConcurrentHashMap<>();
 
     /**
      * Creates a new instance of the service.
@@ -92,6 +198,63 @@ public abstract class CommandableGrpcService extends GrpcService {
         this._dependencyResolver.put("controller", "none");
     }
 
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        super.configure(config);
+
+        this._bulkParallelism = Math.max(1, config.getAsIntegerWithDefault("options.bulk_parallelism", this._bulkParallelism));
+        this._bulkMaxErrors = config.getAsIntegerWithDefault("options.bulk_max_errors", this._bulkMaxErrors);
+        this._bulkThreads = Math.max(1, config.getAsIntegerWithDefault("options.bulk_threads", this._bulkThreads));
+        this._subscribeBufferSize = config.getAsIntegerWithDefault("options.subscribe_buffer_size", this._subscribeBufferSize);
+        this._resultVersions = config.getAsBooleanWithDefault("options.result_versions", this._resultVersions);
+
+        this._cacheMaxEntries = config.getAsIntegerWithDefault("cache.max_entries", this._cacheMaxEntries);
+        this._cacheMaxEntrySize = config.getAsIntegerWithDefault("cache.max_entry_size", this._cacheMaxEntrySize);
+        this._idempotencyTimeout = config.getAsLongWithDefault("idempotency.timeout", this._idempotencyTimeout);
+        var idempotencyMaxEntries = config.getAsIntegerWithDefault("idempotency.max_entries", this._idempotentReplies.getMaxSize());
+        if (idempotencyMaxEntries != this._idempotentReplies.getMaxSize())
+            this._idempotentReplies = new ExpiringCache<>(idempotencyMaxEntries);
+
+        var coalesced = config.getAsNullableString("options.coalesce_commands");
+        if (coalesced != null) {
+            for (var command : coalesced.split(","))
+                if (!command.isBlank())
+                    this.registerCoalescedCommand(command.trim());
+        }
+
+        var commands = config.getSection("cache.commands");
+        for (var command : commands.keySet())
+            this.registerCommandCache(command, commands.getAsLong(command));
+
+        this._dictionaries.configure(config);
+    }
+
+    /**
+     * Closes component and frees used resources.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void close(String correlationId) throws InvalidStateException {
+        // Complete streams of subscribers before the server goes down
+        for (var subscriber : this._subscribers)
+            subscriber.close(null);
+
+        super.close(correlationId);
+
+        synchronized (this) {
+            if (this._bulkExecutor != null) {
+                this._bulkExecutor.shutdown();
+                this._bulkExecutor = null;
+            }
+        }
+    }
+
     /**
      * Registers a commandable method in this objects GRPC server (service) by the given name.,
      *
@@ -102,7 +265,133 @@ public abstract class CommandableGrpcService extends GrpcService {
         _commandableMethods.put(method, action);
     }
 
-    private void invokeCommand(InvokeRequest request, io.grpc.stub.StreamObserver<InvokeReply> responseObserver) {
+    /**
+     * Registers a schema to validate command arguments. The schema is compiled once,
+     * invocations with invalid arguments receive an error reply with BAD_REQUEST status
+     * without executing the command.
+     *
+     * @param command a command name.
+     * @param schema  a validation schema of command arguments.
+     */
+    protected void registerCommandSchema(String command, Schema schema) {
+        _commandSchemas.put(this._name + '.' + command, CompiledValidator.forMap(schema));
+    }
+
+    /**
+     * Registers a function that returns the current version of a command result,
+     * for instance a change counter or a modification time of underlying data.
+     * It allows to skip execution of the command when a client already has the current result.
+     *
+     * @param command     a command name.
+     * @param versionFunc a function that receives correlation id and command parameters and returns the result version.
+     */
+    protected void registerCommandVersion(String command, CommandFunction versionFunc) {
+        _commandVersions.put(this._name + '.' + command, versionFunc);
+    }
+
+    /**
+     * Enables caching of the command results. The command shall be idempotent
+     * and return the same result for the same arguments during the cache time to live.
+     *
+     * @param command    a command name.
+     * @param timeToLive time to live of cached results in milliseconds.
+     */
+    protected synchronized void registerCommandCache(String command, long timeToLive) {
+        if (this._cache == null)
+            this._cache = new TinyLfuCache<>(this._cacheMaxEntries);
+        _cacheTimeouts.put(this._name + '.' + command, timeToLive);
+    }
+
+    /**
+     * Enables coalescing of concurrent identical invocations of the command.
+     * While the command is executed, invocations with the same arguments wait
+     * and receive the same result instead of executing the command again.
+     * The command shall be idempotent.
+     *
+     * @param command a command name.
+     */
+    protected void registerCoalescedCommand(String command) {
+        _coalescedCommands.add(this._name + '.' + command);
+    }
+
+    /**
+     * Removes cached results of commands which names start with the prefix.
+     * It shall be called when data returned by cached commands are changed.
+     *
+     * @param commandPrefix a command name or a prefix of command names.
+     *                      Empty prefix removes all cached results.
+     * @return the number of removed results.
+     */
+    public int invalidateCache(String commandPrefix) {
+        var cache = this._cache;
+        if (cache == null)
+            return 0;
+
+        var prefix = this._name + '.' + (commandPrefix != null ? commandPrefix : "");
+        return cache.invalidateIf(key -> key.startsWith(prefix));
+    }
+
+    private static String canonicalizeArgs(String argsJson) throws Exception {
+        if (argsJson.isEmpty())
+            return argsJson;
+        return _canonicalMapper.writeValueAsString(_canonicalMapper.readValue(argsJson, Object.class));
+    }
+
+    private static String computeVersion(String json) throws Exception {
+        var hash = MessageDigest.getInstance("MD5").digest(json.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private void invokeCommand(InvokeRequest request, StreamObserver<InvokeReply> responseObserver) {
+        responseObserver.onNext(compressReply(request, invoke(request)));
+        responseObserver.onCompleted();
+    }
+
+    private InvokeReply compressReply(InvokeRequest request, InvokeReply reply) {
+        var dictionaryId = request.getDictionaryId();
+        if (!this._dictionaries.contains(dictionaryId) || reply.hasError()
+                || !this._dictionaries.shouldCompress(reply.getResultJson()))
+            return reply;
+
+        var compressed = this._dictionaries.compress(dictionaryId, reply.getResultJson());
+        return reply.toBuilder().clearResultJson()
+                .setResultZstd(ByteString.copyFrom(compressed))
+                .setDictionaryId(dictionaryId).build();
+    }
+
+    private InvokeReply invoke(InvokeRequest request) {
+        var idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey.isEmpty())
+            return invokeOnce(request);
+
+        var key = request.getMethod() + '\n' + idempotencyKey;
+        var stored = this._idempotentReplies.get(key);
+        if (stored != null) {
+            this._counters.incrementOne(request.getMethod() + ".idempotency.duplicate_count");
+            return stored;
+        }
+
+        try {
+            // Concurrent duplicates wait for the first invocation
+            return this._idempotentFlight.execute(key, () -> {
+                var reply = this._idempotentReplies.get(key);
+                if (reply != null)
+                    return reply;
+
+                reply = invokeOnce(request);
+                // Failed invocations can be retried
+                if (!reply.hasError())
+                    this._idempotentReplies.put(key, reply, this._idempotencyTimeout);
+                return reply;
+            });
+        } catch (Exception ex) {
+            var err = new InvocationException(request.getCorrelationId(), "METHOD_FAILED", "Method " + request.getMethod() + " failed")
+                    .wrap(ex).withDetails("method", request.getMethod());
+            return InvokeReply.newBuilder().setError(createErrorResponse(err)).build();
+        }
+    }
+
+    private InvokeReply invokeOnce(InvokeRequest request) {
         var method = request.getMethod();
         var correlationId = request.getCorrelationId();
         var action = _commandableMethods.get(method);
@@ -112,49 +401,179 @@ public abstract class CommandableGrpcService extends GrpcService {
             var err = new InvocationException(correlationId, "METHOD_NOT_FOUND", "Method " + method + " was not found")
                     .withDetails("method", method);
 
-            responseObserver.onNext(InvokeReply.newBuilder().setError(createErrorResponse(err)).build());
-            responseObserver.onCompleted();
-            createErrorResponse(err);
-            return;
+            return InvokeReply.newBuilder().setError(createErrorResponse(err)).build();
         }
 
         try {
-            // Convert arguments
             var argsEmpty = request.getArgsEmpty();
-            var argsJson = request.getArgsJson();
+            var argsJson = request.getArgsZstd().isEmpty()
+                    ? request.getArgsJson()
+                    : this._dictionaries.decompress(request.getDictionaryId(), request.getArgsZstd().toByteArray());
+
+            // Return cached result
+            String cacheKey = null;
+            var cacheTimeout = this._cache != null ? _cacheTimeouts.get(method) : null;
+            if (cacheTimeout != null) {
+                cacheKey = method + '\n' + canonicalizeArgs(argsEmpty ? "" : argsJson);
+                var cached = this._cache.get(cacheKey);
+                if (cached != null) {
+                    this._counters.incrementOne(method + ".cache.hit_count");
+                    if (!cached.getVersion().isEmpty() && cached.getVersion().equals(request.getVersion()))
+                        return createNotModifiedReply(cached.getVersion(), cached.getResultEmpty());
+                    return cached;
+                }
+                this._counters.incrementOne(method + ".cache.miss_count");
+            }
+
+            // Convert arguments
             var args = !argsEmpty && !argsJson.isEmpty()
                     ? Parameters.fromJson(argsJson)
                     : new Parameters();
 
-            // Todo: Validate schema
-            //var schema = this._commandableSchemas[method];
-            //if (schema)
-            //{
-            //    //...
-            //}
+            // Validate arguments before anything is executed
+            var validator = _commandSchemas.get(method);
+            if (validator != null) {
+                var err = validator.validateAndReturnException(correlationId, args);
+                if (err != null)
+                    return InvokeReply.newBuilder().setError(createErrorResponse(err)).build();
+            }
+
+            // Get the result version without executing the command
+            String version = null;
+            var versionFunc = _commandVersions.get(method);
+            if (versionFunc != null) {
+                var value = versionFunc.apply(correlationId, args);
+                version = value != null ? value.toString() : null;
 
-            // Call command action
-            var result = action.apply(correlationId, args);
+                if (version != null && version.equals(request.getVersion()))
+                    return createNotModifiedReply(version, false);
+            }
 
-            // Process result and generate response
-            var response = InvokeReply.newBuilder().setResultEmpty(result == null);
+            // Call command action once for concurrent identical requests
+            var resultVersion = version;
+            var reply = _coalescedCommands.contains(method)
+                    ? _commandFlight.execute(cacheKey != null ? cacheKey : method + '\n' + canonicalizeArgs(argsEmpty ? "" : argsJson),
+                    () -> executeCommand(action, correlationId, args, resultVersion))
+                    : executeCommand(action, correlationId, args, resultVersion);
 
-            if (result != null)
-                response.setResultJson(JsonConverter.toJson(result));
+            if (reply.hasError())
+                return reply;
 
-            if (result instanceof Exception)
-                response.setError(createErrorResponse((Exception) result));
+            if (cacheKey != null && reply.getResultJson().length() <= this._cacheMaxEntrySize)
+                this._cache.put(cacheKey, cacheResponse("invoke", reply), cacheTimeout);
 
-            responseObserver.onNext(response.build());
-            responseObserver.onCompleted();
+            if (!reply.getVersion().isEmpty() && reply.getVersion().equals(request.getVersion()))
+                return createNotModifiedReply(reply.getVersion(), reply.getResultEmpty());
+
+            return reply;
         } catch (Exception ex) {
             // Handle unexpected exception
             var err = new InvocationException(correlationId, "METHOD_FAILED", "Method " + method + " failed")
                     .wrap(ex).withDetails("method", method);
 
-            responseObserver.onNext(InvokeReply.newBuilder().setError(createErrorResponse(err)).build());
-            responseObserver.onCompleted();
-            createErrorResponse(err);
+            return InvokeReply.newBuilder().setError(createErrorResponse(err)).build();
+        }
+    }
+
+    private static InvokeReply createNotModifiedReply(String version, boolean resultEmpty) {
+        return InvokeReply.newBuilder()
+                .setNotModified(true)
+                .setVersion(version)
+                .setResultEmpty(resultEmpty)
+                .build();
+    }
+
+    private InvokeReply executeCommand(CommandFunction action, String correlationId, Parameters args, String version) throws Exception {
+        var result = action.apply(correlationId, args);
+
+        // Process result and generate response
+        var response = InvokeReply.newBuilder().setResultEmpty(result == null);
+
+        if (result instanceof Exception) {
+            response.setResultJson(JsonConverter.toJson(result));
+            response.setError(createErrorResponse((Exception) result));
+            return response.build();
+        }
+
+        var resultJson = result != null ? JsonConverter.toJson(result) : "";
+        if (this._resultVersions && version == null)
+            version = computeVersion(resultJson);
+
+        if (version != null)
+            response.setVersion(version);
+
+        return response.setResultJson(resultJson).build();
+    }
+
+    private StreamObserver<InvokeRequest> invokeBulk(StreamObserver<InvokeBulkReply> responseObserver) {
+        ExecutorService executor;
+        synchronized (this) {
+            if (this._bulkExecutor == null) {
+                // Invocations beyond the pool size wait in the queue
+                this._bulkExecutor = Executors.newFixedThreadPool(this._bulkThreads, runnable -> {
+                    var thread = new Thread(runnable, "commandable-bulk");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            executor = this._bulkExecutor;
+        }
+
+        // Requests are pulled only when there is a free execution slot
+        var observer = (ServerCallStreamObserver<InvokeBulkReply>) responseObserver;
+        observer.disableAutoRequest();
+        observer.request(this._bulkParallelism);
+
+        return new BulkInvocation(observer, executor);
+    }
+
+    private void subscribe(SubscribeRequest request, StreamObserver<EventMessage> responseObserver) {
+        var subscriber = new EventSubscriber(responseObserver, request.getTopicsList(), this._subscribeBufferSize);
+        this._subscribers.add(subscriber);
+        subscriber.start(() -> this._subscribers.remove(subscriber));
+
+        this._logger.trace(request.getCorrelationId(), "Subscribed to %s events", this._name);
+    }
+
+    /**
+     * Publishes an event to all subscribers of the topic.
+     * Pending events with the same topic and key are superseded by this event.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param topic         an event topic.
+     * @param key           (optional) a key of the changed object. Events without keys are never superseded.
+     * @param data          (optional) event data that is sent as JSON.
+     */
+    public void publish(String correlationId, String topic, String key, Object data) {
+        if (this._subscribers.isEmpty())
+            return;
+
+        var event = EventMessage.newBuilder()
+                .setTopic(topic)
+                .setSequence(this._eventSequence.incrementAndGet())
+                .setDataEmpty(data == null);
+
+        if (key != null)
+            event.setKey(key);
+        if (correlationId != null)
+            event.setCorrelationId(correlationId);
+
+        try {
+            if (data != null)
+                event.setDataJson(JsonConverter.toJson(data));
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+
+        var message = event.build();
+        for (var subscriber : this._subscribers) {
+            if (!subscriber.accepts(topic))
+                continue;
+
+            if (!subscriber.push(message)) {
+                this._counters.incrementOne(this._name + ".subscribe.evicted_count");
+                this._logger.warn(correlationId, "Evicted slow subscriber of %s events", this._name);
+            }
         }
     }
 
@@ -199,6 +618,14 @@ public abstract class CommandableGrpcService extends GrpcService {
         var commands = _commandSet.getCommands();
 
         registerMethod("invoke", null, this::invokeCommand);
+        registerClientStreamingMethod("invoke_bulk", null, this::invokeBulk);
+        registerServerStreamingMethod("subscribe", null, this::subscribe);
+
+        // Warm-up goes through request parsing, dispatching and error replies without executing commands
+        registerWarmupRequest("invoke", InvokeRequest.newBuilder()
+                .setMethod(this._name + ".__warmup__")
+                .setArgsEmpty(false).setArgsJson("{\"warmup\":true}")
+                .build());
 
         for (org.pipservices3.commons.commands.ICommand command : commands) {
             var method = "" + this._name + '.' + command.getName();
@@ -216,4 +643,103 @@ public abstract class CommandableGrpcService extends GrpcService {
             });
         }
     }
+
+    private class BulkInvocation implements StreamObserver<InvokeRequest> {
+        private final ServerCallStreamObserver<InvokeBulkReply> _observer;
+        private final ExecutorService _executor;
+        private final InvokeBulkReply.Builder _reply = InvokeBulkReply.newBuilder();
+        private String _method = "";
+        private String _correlationId = "";
+        private int _received = 0;
+        private int _inProgress = 0;
+        private boolean _completed = false;
+        private boolean _terminated = false;
+
+        BulkInvocation(ServerCallStreamObserver<InvokeBulkReply> observer, ExecutorService executor) {
+            _observer = observer;
+            _executor = executor;
+        }
+
+        @Override
+        public void onNext(InvokeRequest request) {
+            // Requests are delivered sequentially, so the inherited fields do not need locking
+            if (!request.getMethod().isEmpty())
+                _method = request.getMethod();
+            if (!request.getCorrelationId().isEmpty())
+                _correlationId = request.getCorrelationId();
+
+            var index = _received++;
+            var invocation = request.toBuilder()
+                    .setMethod(_method)
+                    .setCorrelationId(_correlationId)
+                    .build();
+
+            synchronized (this) {
+                if (_terminated) return;
+                _inProgress++;
+            }
+
+            try {
+                _executor.execute(Context.current().wrap(() -> {
+                    var reply = !_observer.isCancelled() ? invoke(invocation) : null;
+                    onInvoked(index, reply);
+                }));
+            } catch (Exception ex) {
+                onInvoked(index, InvokeReply.newBuilder().setError(createErrorResponse(ex)).build());
+            }
+        }
+
+        private void onInvoked(int index, InvokeReply reply) {
+            synchronized (this) {
+                _inProgress--;
+
+                if (reply != null) {
+                    _reply.setTotal(_reply.getTotal() + 1);
+                    if (reply.hasError()) {
+                        _reply.setFailed(_reply.getFailed() + 1);
+                        if (_reply.getErrorsCount() < _bulkMaxErrors)
+                            _reply.addErrors(InvokeBulkError.newBuilder().setIndex(index).setError(reply.getError()));
+                    } else {
+                        _reply.setSucceeded(_reply.getSucceeded() + 1);
+                    }
+                }
+            }
+
+            if (!_observer.isCancelled())
+                _observer.request(1);
+
+            tryFinish();
+        }
+
+        private void tryFinish() {
+            InvokeBulkReply reply;
+            synchronized (this) {
+                if (!_completed || _terminated || _inProgress > 0)
+                    return;
+                _terminated = true;
+                reply = _reply.build();
+            }
+
+            if (_observer.isCancelled())
+                return;
+
+            _observer.onNext(reply);
+            _observer.onCompleted();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                _terminated = true;
+            }
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                _completed = true;
+            }
+            tryFinish();
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.pipservices3.grpc.commandable.EventMessage;
+
+import java.util.*;
+
+/**
+ * Subscriber of a server streaming call that receives pushed events.
+ * Events are kept in a bounded buffer until the transport is ready to send them.
+ * A pending event is superseded by a newer event with the same topic and key,
+ * so a subscriber receives only the latest state of each changed object.
+ * When the buffer overflows the subscriber is evicted and its stream is terminated
+ * with RESOURCE_EXHAUSTED status.
+ */
+class EventSubscriber {
+    private final ServerCallStreamObserver<EventMessage> _observer;
+    private final Set<String> _topics;
+    private final int _maxBufferSize;
+    private final LinkedHashMap<String, EventMessage> _buffer = new LinkedHashMap<>();
+    private Runnable _onClosed;
+    private boolean _closed = false;
+
+    /**
+     * Creates a new subscriber.
+     *
+     * @param responseObserver a response observer of the server streaming call.
+     * @param topics           topics to receive or empty to receive all events.
+     * @param maxBufferSize    a maximum number of pending events.
+     */
+    EventSubscriber(StreamObserver<EventMessage> responseObserver, Collection<String> topics, int maxBufferSize) {
+        _observer = (ServerCallStreamObserver<EventMessage>) responseObserver;
+        _topics = new HashSet<>(topics);
+        _maxBufferSize = Math.max(1, maxBufferSize);
+    }
+
+    /**
+     * Starts delivering events as the transport becomes ready.
+     *
+     * @param onClosed a callback called once when the subscriber is cancelled, evicted or completed.
+     */
+    void start(Runnable onClosed) {
+        _onClosed = onClosed;
+        _observer.setOnReadyHandler(this::drain);
+        _observer.setOnCancelHandler(() -> close(null));
+    }
+
+    /**
+     * Checks if the subscriber is interested in a topic.
+     *
+     * @param topic an event topic.
+     * @return true if the subscriber receives events of the topic.
+     */
+    boolean accepts(String topic) {
+        return _topics.isEmpty() || _topics.contains(topic);
+    }
+
+    /**
+     * Gets the number of pending events.
+     *
+     * @return the buffered events count.
+     */
+    synchronized int getBufferSize() {
+        return _buffer.size();
+    }
+
+    /**
+     * Checks if the subscriber was closed.
+     *
+     * @return true if the subscriber was closed.
+     */
+    synchronized boolean isClosed() {
+        return _closed;
+    }
+
+    /**
+     * Queues an event and sends pending events while the transport is ready.
+     *
+     * @param event an event to send.
+     * @return false if the subscriber was evicted and true otherwise.
+     */
+    boolean push(EventMessage event) {
+        synchronized (this) {
+            if (_closed) return true;
+
+            // Events without keys are never superseded
+            var key = event.getKey().isEmpty()
+                    ? "#" + event.getSequence()
+                    : event.getTopic() + "/" + event.getKey();
+            // Superseded event is dropped and the new one goes to the end of the queue
+            _buffer.remove(key);
+            _buffer.put(key, event);
+        }
+
+        drain();
+
+        synchronized (this) {
+            if (_closed || _buffer.size() <= _maxBufferSize)
+                return true;
+        }
+
+        close(Status.RESOURCE_EXHAUSTED
+                .withDescription("Subscriber is too slow, more than " + _maxBufferSize + " events are pending")
+                .asRuntimeException());
+        return false;
+    }
+
+    private synchronized void drain() {
+        if (_closed) return;
+
+        var iterator = _buffer.values().iterator();
+        while (iterator.hasNext() && _observer.isReady()) {
+            var event = iterator.next();
+            iterator.remove();
+            _observer.onNext(event);
+        }
+    }
+
+    /**
+     * Closes the subscriber and terminates its stream.
+     *
+     * @param error an error to terminate the stream with or null to complete it normally.
+     */
+    void close(Throwable error) {
+        synchronized (this) {
+            if (_closed) return;
+            _closed = true;
+            _buffer.clear();
+
+            if (!_observer.isCancelled()) {
+                if (error != null)
+                    _observer.onError(error);
+                else
+                    _observer.onCompleted();
+            }
+        }
+
+        if (_onClosed != null)
+            _onClosed.run();
+    }
+}
@@ -1,10 +1,20 @@
 package org.pipservices3.grpc.services;
 
-import io.grpc.Server;
-import io.grpc.ServerBuilder;
-import io.grpc.ServerServiceDefinition;
+import io.grpc.*;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.netty.GrpcSslContexts;
+import io.grpc.health.v1.HealthCheckResponse;
 import io.grpc.netty.NettyServerBuilder;
+import io.grpc.protobuf.services.HealthStatusManager;
+import io.grpc.stub.ClientCalls;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.ssl.SslContext;
 import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.config.IConfigurable;
@@ -15,14 +25,22 @@ import org.pipservices3.commons.refer.ReferenceException;
 import org.pipservices3.commons.run.IOpenable;
 import org.pipservices3.components.count.CompositeCounters;
 import org.pipservices3.components.log.CompositeLogger;
+import org.pipservices3.grpc.codecs.MessageCompression;
 import org.pipservices3.grpc.commandable.CommandableGrpc;
 import org.pipservices3.grpc.commandable.InvokeReply;
 import org.pipservices3.rpc.connect.HttpConnectionResolver;
 import org.pipservices3.rpc.services.IRegisterable;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -35,16 +53,71 @@ import java.util.concurrent.TimeUnit;
  * <pre>
  * - connection(s) - the connection resolver's connections:
  *     - "connection.discovery_key" - the key to use for connection resolving in a discovery service;
- *     - "connection.protocol" - the connection's protocol;
+ *     - "connection.protocol" - the connection's protocol: http, https, inproc or unix;
  *     - "connection.host" - the target host;
  *     - "connection.port" - the target port;
+ *     - "connection.path" - the socket file path for unix protocol;
  *     - "connection.uri" - the target URI.
  * - credential - the HTTPS credentials:
  *     - "credential.ssl_key_file" - the SSL private key in PEM
  *     - "credential.ssl_crt_file" - the SSL certificate in PEM
  *     - "credential.ssl_ca_file" - the certificate authorities (root cerfiticates) in PEM
+ * - options:
+ *     - "options.listeners" - number of listeners opened on the same port with SO_REUSEPORT (default: 1);
+ *     - "options.listener_threads" - number of event loop threads per listener (default: processors / listeners);
+ *     - "options.max_connection_age" - time in milliseconds after which connections are gracefully closed, so clients reconnect and rebalance (default: unlimited);
+ *     - "options.max_connection_age_grace" - time in milliseconds to complete calls in progress on aged connections (default: unlimited);
+ *     - "options.max_connection_idle" - time in milliseconds after which idle connections are closed (default: unlimited);
+ *     - "options.keepalive_time" - time in milliseconds between keepalive pings sent to clients (default: 2 hours);
+ *     - "options.keepalive_timeout" - time in milliseconds to wait for keepalive ping acknowledge before closing the connection (default: 20 sec);
+ *     - "options.permit_keepalive_time" - minimum time in milliseconds between keepalive pings allowed from clients (default: 5 min);
+ *     - "options.permit_keepalive_without_calls" - true to allow keepalive pings from clients without calls in progress (default: false);
+ *     - "options.warmup_iterations" - number of times each registered warm-up request is sent before the endpoint starts listening (default: 0, disabled);
+ *     - "options.warmup_timeout" - maximum time in milliseconds spent on warm-up (default: 30 sec);
+ *     - "options.health_check" - true to register the standard GRPC health service (default: true);
+ *     - "options.load_reports" - true to register the load reporting service (default: true);
+ *     - "options.load_report_interval" - default interval between load reports in milliseconds (default: 1 sec).
+ * - scheduling - priority and fair-share scheduling of incoming calls (see {@link CallScheduler}):
+ *     - "scheduling.enabled" - turns on call scheduling (default: false);
+ *     - "scheduling.threads" - number of worker threads;
+ *     - "scheduling.max_queue_size" - maximum number of queued calls;
+ *     - "scheduling.default_priority" - priority of calls without "x-priority" header;
+ *     - "scheduling.weights.[tenant]" - weight of the tenant in fair queueing.
+ * - compression - compression of responses (see {@link MessageCompression}):
+ *     - "compression.codec" - default codec: none, gzip or zstd (default: none);
+ *     - "compression.min_size" - minimum size of compressed responses in bytes (default: 1024);
+ *     - "compression.level" - zstd compression level (default: 3);
+ *     - "compression.methods.[method]" - codec for the method.
  * </pre>
  * <p>
+ * With "inproc" protocol the endpoint is opened in-process and is reachable only by clients
+ * in the same process, see {@link org.pipservices3.grpc.clients.GrpcClient}. Calls skip the network
+ * stack and serialization. In-process endpoints are identified by their ports
+ * or by names in "inproc://[name]" URIs.
+ * <p>
+ * With "unix" protocol or "unix://[path]" URI the endpoint listens on a unix domain socket
+ * for sidecars and other processes on the same host. It avoids the overhead of TCP stack
+ * and requires native epoll transport, which is bundled for Linux on x86_64 and aarch64.
+ * On other platforms the endpoint fails to open with UNIX_SOCKETS_NOT_SUPPORTED error.
+ * A socket file left by an exited process is replaced, but opening fails when the path
+ * is not a socket or another server listens on it. The socket file is removed on close.
+ * <p>
+ * On multi-core hosts a single listener can become a bottleneck when many clients connect at once.
+ * With "options.listeners" greater than 1 the endpoint opens several listeners on the same port
+ * with SO_REUSEPORT, each with its own event loops, and the kernel spreads incoming connections
+ * among them. All listeners serve the same registered services. It requires native epoll transport.
+ * <p>
+ * Right after start the first requests are served by interpreted code and cold caches.
+ * With "options.warmup_iterations" the endpoint sends requests registered by services
+ * via {@link #registerWarmupRequest} to an in-process copy of itself, with the same interceptors
+ * and marshallers, before it starts listening. Failed warm-up calls are ignored.
+ * <p>
+ * The endpoint registers the standard "grpc.health.v1.Health" service. The endpoint and all registered
+ * services are reported as SERVING when the endpoint is open, and as NOT_SERVING after {@link #drain}
+ * and when the endpoint is closed. Clients can also watch out-of-band load reports via "load.LoadReporter"
+ * service with the number of calls in progress, scheduler queue size and CPU utilization
+ * to weight backends, see {@link org.pipservices3.grpc.clients.LoadReportClient}.
+ * <p>
  * ### References ###
  * <p>
  * A logger, counters, and a connection resolver can be referenced by passing the
@@ -83,12 +156,14 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
             "options.request_max_size", 1024 * 1024,
             "options.file_max_size", 200 * 1024 * 1024,
             "options.connect_timeout", 60000,
-            "options.debug", true
+            "options.debug", true,
+
+            "scheduling.enabled", false
     );
 
     protected final List<Interceptor> _interceptors = new ArrayList<>();
-    private ServerBuilder<? extends ServerBuilder<?>> _builder;
-    private Server _server;
+    private final List<ServerServiceDefinition> _services = new ArrayList<>();
+    private final List<Server> _servers = new ArrayList<>();
     private final HttpConnectionResolver _connectionResolver = new HttpConnectionResolver();
     private final CompositeLogger _logger = new CompositeLogger();
     private final CompositeCounters _counters = new CompositeCounters();
@@ -96,6 +171,28 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
     private long _fileMaxSize = 200 * 1024 * 1024;
     private String _uri;
     private List<IRegisterable> _registrations = new ArrayList<>();
+    private CallScheduler _scheduler;
+    private String _inProcessName;
+    private String _socketPath;
+    private int _listeners = 1;
+    private int _listenerThreads = 0;
+    private final List<EventLoopGroup> _eventLoopGroups = new ArrayList<>();
+    private long _maxConnectionAge = 0;
+    private long _maxConnectionAgeGrace = 0;
+    private long _maxConnectionIdle = 0;
+    private long _keepAliveTime = 0;
+    private long _keepAliveTimeout = 0;
+    private long _permitKeepAliveTime = 0;
+    private boolean _permitKeepAliveWithoutCalls = false;
+    private MessageCompression _compression = new MessageCompression();
+    private int _warmupIterations = 0;
+    private long _warmupTimeout = 30000;
+    private final List<Map.Entry<String, Object>> _warmupRequests = new ArrayList<>();
+    private boolean _healthCheck = true;
+    private boolean _loadReports = true;
+    private long _loadReportInterval = 1000;
+    private HealthStatusManager _health;
+    private LoadReportService _loadReporter;
 
     /**
      * Configures this HttpEndpoint using the given configuration parameters.
@@ -119,10 +216,38 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
     @Override
     public void configure(ConfigParams config) throws ConfigException {
         config = config.setDefaults(GrpcEndpoint._defaultConfig);
-        this._connectionResolver.configure(config);
+        this._inProcessName = getInProcessName(config);
+        this._socketPath = getSocketPath(config);
+        if (this._inProcessName == null && this._socketPath == null)
+            this._connectionResolver.configure(config);
 
         this._maintenanceEnabled = config.getAsBooleanWithDefault("options.maintenance_enabled", this._maintenanceEnabled);
         this._fileMaxSize = config.getAsLongWithDefault("options.file_max_size", this._fileMaxSize);
+        this._listeners = Math.max(1, config.getAsIntegerWithDefault("options.listeners", this._listeners));
+        this._listenerThreads = config.getAsIntegerWithDefault("options.listener_threads", this._listenerThreads);
+        this._maxConnectionAge = config.getAsLongWithDefault("options.max_connection_age", this._maxConnectionAge);
+        this._maxConnectionAgeGrace = config.getAsLongWithDefault("options.max_connection_age_grace", this._maxConnectionAgeGrace);
+        this._maxConnectionIdle = config.getAsLongWithDefault("options.max_connection_idle", this._maxConnectionIdle);
+        this._keepAliveTime = config.getAsLongWithDefault("options.keepalive_time", this._keepAliveTime);
+        this._keepAliveTimeout = config.getAsLongWithDefault("options.keepalive_timeout", this._keepAliveTimeout);
+        this._permitKeepAliveTime = config.getAsLongWithDefault("options.permit_keepalive_time", this._permitKeepAliveTime);
+        this._permitKeepAliveWithoutCalls = config.getAsBooleanWithDefault("options.permit_keepalive_without_calls", this._permitKeepAliveWithoutCalls);
+
+        this._warmupIterations = config.getAsIntegerWithDefault("options.warmup_iterations", this._warmupIterations);
+        this._warmupTimeout = config.getAsLongWithDefault("options.warmup_timeout", this._warmupTimeout);
+        this._healthCheck = config.getAsBooleanWithDefault("options.health_check", this._healthCheck);
+        this._loadReports = config.getAsBooleanWithDefault("options.load_reports", this._loadReports);
+        this._loadReportInterval = config.getAsLongWithDefault("options.load_report_interval", this._loadReportInterval);
+
+        this._compression = new MessageCompression();
+        this._compression.configure(config);
+
+        if (config.getAsBooleanWithDefault("scheduling.enabled", false)) {
+            this._scheduler = new CallScheduler(this._logger);
+            this._scheduler.configure(config);
+        } else {
+            this._scheduler = null;
+        }
     }
 
     /**
@@ -146,12 +271,30 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
         this._connectionResolver.setReferences(references);
     }
 
+    /**
+     * Gets the maximum size of files transferred through this endpoint.
+     *
+     * @return the maximum file size in bytes.
+     */
+    public long getFileMaxSize() {
+        return this._fileMaxSize;
+    }
+
+    /**
+     * Gets the scheduler that orders execution of incoming calls.
+     *
+     * @return the call scheduler or null if scheduling is disabled.
+     */
+    public CallScheduler getScheduler() {
+        return this._scheduler;
+    }
+
     /**
      * @return whether or not this endpoint is open with an actively listening GRPC server.
      */
     @Override
     public boolean isOpen() {
-        return this._server != null;
+        return !this._servers.isEmpty();
     }
 
     /**
@@ -166,50 +309,38 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
             return;
         }
 
-        var connection = this._connectionResolver.resolve(correlationId);
-
-        this._uri = connection.getAsString("uri");
-        var port = connection.getAsInteger("port");
+        var connection = this._inProcessName == null && this._socketPath == null
+                ? this._connectionResolver.resolve(correlationId) : null;
 
         try {
-            // TODO add credentials
-            if (Objects.equals(connection.getAsStringWithDefault("protocol", "http"), "https")) {
-                var sslKeyPath = connection.getAsNullableString("ssl_key_file");
-                var sslCrtPath = connection.getAsNullableString("ssl_crt_file");
-                var sslCaPath = connection.getAsNullableString("ssl_ca_file");
+            // Start operations
+            performRegistrations();
 
-//                var ca = new ArrayList<>();
-//
-//                if (sslCaPath != null) {
-//                    try(var caFile = new FileInputStream(sslCaPath)) {
-//                        var caText = new String(caFile.readAllBytes(), StandardCharsets.UTF_8);
-//                        var crtIndex = caText.lastIndexOf("-----BEGIN CERTIFICATE-----");
-//                        if (crtIndex > -1) {
-//                            ca.add(caText.substring(crtIndex));
-//                            caText = caText.substring(0, crtIndex);
-//                        }
-//                    }
-//                }
-                SslContext sslContext = GrpcSslContexts.forClient()
-                        // if server's cert doesn't chain to a standard root
-                        .trustManager(new File(sslCaPath))
-                        .keyManager(new File(sslCrtPath), new File(sslKeyPath)) // client cert
-                        .build();
-
-                _builder = NettyServerBuilder.forPort(port)
-                        .addService(new CommandableImpl())
-                        .sslContext(sslContext);
-            } else {
-                // Create instance of express application
-                _builder = ServerBuilder.forPort(port)
-                        .addService(new CommandableImpl());
+            if (_scheduler != null)
+                _scheduler.start();
+
+            if (_healthCheck)
+                _health = new HealthStatusManager();
+            if (_loadReports) {
+                var scheduler = _scheduler;
+                _loadReporter = new LoadReportService(() -> scheduler != null ? scheduler.getQueueSize() : 0, _loadReportInterval);
             }
 
-            // Start operations
-            performRegistrations();
+            // Warm up before clients can reach the endpoint
+            warmup(correlationId);
+
+            // Listeners share the same services, the kernel spreads connections among them
+            var listeners = this._inProcessName == null && this._socketPath == null ? this._listeners : 1;
+            for (var index = 0; index < listeners; index++) {
+                var builder = createServerBuilder(connection, listeners);
+                if (builder instanceof NettyServerBuilder)
+                    configureConnections((NettyServerBuilder) builder);
+
+                _servers.add(configureServices(builder).build().start());
+            }
 
-            _server = _builder.build();
-            _server.start();
+            // Balancers can route calls to the endpoint
+            setServingStatus(HealthCheckResponse.ServingStatus.SERVING);
 
             Runtime.getRuntime().addShutdownHook(new Thread() {
                 @Override
@@ -220,7 +351,17 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
                 }
             });
         } catch (Exception ex) {
-            this._server = null;
+            _servers.forEach(Server::shutdownNow);
+            if (!_servers.isEmpty())
+                removeSocketFile();
+            _servers.clear();
+            _services.clear();
+            _warmupRequests.clear();
+            shutdownEventLoops();
+            closeReporting();
+
+            if (_scheduler != null)
+                _scheduler.stop();
 
             throw new ConnectionException(
                     correlationId,
@@ -230,6 +371,302 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
         }
     }
 
+    private ServerBuilder<?> configureServices(ServerBuilder<?> builder) {
+        // Compressed requests are accepted with all supported codecs
+        builder.compressorRegistry(_compression.createCompressorRegistry())
+                .decompressorRegistry(_compression.createDecompressorRegistry());
+        if (_compression.isEnabled())
+            builder.intercept(_compression.createServerInterceptor());
+
+        _services.forEach(builder::addService);
+        _interceptors.forEach(builder::intercept);
+
+        if (_scheduler != null)
+            builder.intercept(_scheduler.createInterceptor());
+
+        if (_health != null)
+            builder.addService(_health.getHealthService());
+        if (_loadReporter != null)
+            builder.addService(_loadReporter).intercept(_loadReporter.createInterceptor());
+
+        return builder;
+    }
+
+    private void setServingStatus(HealthCheckResponse.ServingStatus status) {
+        if (_health == null)
+            return;
+
+        _health.setStatus(HealthStatusManager.SERVICE_NAME_ALL_SERVICES, status);
+        for (var service : _services)
+            _health.setStatus(service.getServiceDescriptor().getName(), status);
+    }
+
+    private void closeReporting() {
+        // Terminal state keeps services NOT_SERVING while the servers shut down
+        if (_health != null)
+            _health.enterTerminalState();
+        if (_loadReporter != null)
+            _loadReporter.close();
+
+        _health = null;
+        _loadReporter = null;
+    }
+
+    /**
+     * Reports the endpoint and all its services as NOT_SERVING via the health service,
+     * so balancers stop routing new calls to it. Calls are still served until the endpoint is closed.
+     * It shall be called before shutdown with a delay to let balancers notice the change.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    public void drain(String correlationId) {
+        if (!isOpen())
+            return;
+
+        setServingStatus(HealthCheckResponse.ServingStatus.NOT_SERVING);
+        this._logger.info(correlationId, "Draining GRPC service at %s", this._uri);
+    }
+
+    private void warmup(String correlationId) throws IOException, InterruptedException {
+        if (this._warmupIterations <= 0 || this._warmupRequests.isEmpty())
+            return;
+
+        var name = InProcessServerBuilder.generateName();
+        var server = configureServices(InProcessServerBuilder.forName(name)).build().start();
+        var channel = InProcessChannelBuilder.forName(name).build();
+
+        var start = System.currentTimeMillis();
+        var deadline = start + this._warmupTimeout;
+        var calls = 0;
+        var failures = 0;
+        try {
+            for (var iteration = 0; iteration < this._warmupIterations; iteration++) {
+                for (var warmupRequest : this._warmupRequests) {
+                    var remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        this._logger.warn(correlationId, "Warm-up of GRPC service timed out after %d calls", calls);
+                        return;
+                    }
+
+                    var method = findMethod(warmupRequest.getKey());
+                    if (method == null)
+                        continue;
+
+                    calls++;
+                    try {
+                        warmupCall(channel, method, warmupRequest.getValue(), remaining);
+                    } catch (StatusRuntimeException ex) {
+                        failures++;
+                    }
+                }
+            }
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow();
+            channel.awaitTermination(5, TimeUnit.SECONDS);
+            server.awaitTermination(5, TimeUnit.SECONDS);
+
+            this._counters.incrementOne("grpc_endpoint.warmup_count");
+            this._logger.info(correlationId, "Warmed up GRPC service with %d calls (%d failed) in %d ms",
+                    calls, failures, System.currentTimeMillis() - start);
+        }
+    }
+
+    private static <TRequest, TResponse> void warmupCall(Channel channel, MethodDescriptor<TRequest, TResponse> method,
+                                                         Object request, long timeout) {
+        var options = CallOptions.DEFAULT.withDeadlineAfter(timeout, TimeUnit.MILLISECONDS);
+
+        // In-process calls pass messages as is, so marshallers are exercised explicitly
+        var parsedRequest = method.parseRequest(method.streamRequest((TRequest) request));
+        if (method.getType() == MethodDescriptor.MethodType.UNARY) {
+            var response = ClientCalls.blockingUnaryCall(channel, method, options, parsedRequest);
+            method.parseResponse(method.streamResponse(response));
+        } else if (method.getType() == MethodDescriptor.MethodType.SERVER_STREAMING) {
+            var responses = ClientCalls.blockingServerStreamingCall(channel, method, options, parsedRequest);
+            while (responses.hasNext())
+                method.parseResponse(method.streamResponse(responses.next()));
+        }
+    }
+
+    private MethodDescriptor<?, ?> findMethod(String fullMethodName) {
+        for (var service : this._services) {
+            var method = service.getMethod(fullMethodName);
+            if (method != null)
+                return method.getMethodDescriptor();
+        }
+        return null;
+    }
+
+    private static void removeStaleSocket(Path path) throws IOException, ApplicationException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS))
+            return;
+
+        // Files other than sockets are never removed, the path is likely misconfigured
+        var mode = (int) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+        if ((mode & 0170000) != 0140000)
+            throw new ConfigException(null, "INVALID_SOCKET_PATH", "Path " + path + " exists and is not a socket")
+                    .withDetails("path", path.toString());
+
+        // A socket that accepts connections belongs to a live server
+        boolean live;
+        try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(path))) {
+            live = true;
+        } catch (IOException ex) {
+            live = false;
+        }
+
+        if (live)
+            throw new ConnectionException(null, "SOCKET_IN_USE", "Socket " + path + " is used by another server")
+                    .withDetails("path", path.toString());
+
+        // The socket was left by a process that has exited
+        Files.deleteIfExists(path);
+    }
+
+    private void removeSocketFile() {
+        if (this._socketPath == null)
+            return;
+
+        try {
+            Files.deleteIfExists(Path.of(this._socketPath));
+        } catch (IOException ex) {
+            this._logger.warn(null, "Failed to remove socket file %s: %s", this._socketPath, ex);
+        }
+    }
+
+    private ServerBuilder<? extends ServerBuilder<?>> createServerBuilder(ConfigParams connection, int listeners) throws Exception {
+        if (this._inProcessName != null) {
+            this._uri = "inproc://" + this._inProcessName;
+            return InProcessServerBuilder.forName(this._inProcessName)
+                    .addService(new CommandableImpl());
+        }
+
+        if (this._socketPath != null) {
+            if (!Epoll.isAvailable())
+                throw new ConfigException(null, "UNIX_SOCKETS_NOT_SUPPORTED",
+                        "Unix domain sockets require native epoll transport").wrap(Epoll.unavailabilityCause());
+
+            removeStaleSocket(Path.of(this._socketPath));
+
+            this._uri = "unix://" + this._socketPath;
+            return NettyServerBuilder.forAddress(new DomainSocketAddress(this._socketPath))
+                    .channelType(EpollServerDomainSocketChannel.class)
+                    .bossEventLoopGroup(createEventLoopGroup(1))
+                    .workerEventLoopGroup(createEventLoopGroup(0))
+                    .addService(new CommandableImpl());
+        }
+
+        if (listeners > 1) {
+            if (!Epoll.isAvailable())
+                throw new ConfigException(null, "REUSE_PORT_NOT_SUPPORTED",
+                        "Multiple listeners require native epoll transport").wrap(Epoll.unavailabilityCause());
+
+            // Each listener accepts and serves connections on its own event loops
+            var threads = this._listenerThreads > 0 ? this._listenerThreads
+                    : Math.max(1, Runtime.getRuntime().availableProcessors() / listeners);
+            var builder = NettyServerBuilder.forPort(connection.getAsInteger("port"))
+                    .channelType(EpollServerSocketChannel.class)
+                    .withOption(EpollChannelOption.SO_REUSEPORT, true)
+                    .bossEventLoopGroup(createEventLoopGroup(1))
+                    .workerEventLoopGroup(createEventLoopGroup(threads));
+            if (Objects.equals(connection.getAsStringWithDefault("protocol", "http"), "https"))
+                builder.sslContext(createSslContext(connection));
+
+            this._uri = connection.getAsString("uri");
+            return builder.addService(new CommandableImpl());
+        }
+
+        this._uri = connection.getAsString("uri");
+        var port = connection.getAsInteger("port");
+
+        // TODO add credentials
+        if (Objects.equals(connection.getAsStringWithDefault("protocol", "http"), "https")) {
+            return NettyServerBuilder.forPort(port)
+                    .addService(new CommandableImpl())
+                    .sslContext(createSslContext(connection));
+        } else {
+            // Create instance of express application
+            return NettyServerBuilder.forPort(port)
+                    .addService(new CommandableImpl());
+        }
+    }
+
+    private void configureConnections(NettyServerBuilder builder) {
+        // Limited connection age makes clients reconnect and spread load to new instances
+        if (this._maxConnectionAge > 0)
+            builder.maxConnectionAge(this._maxConnectionAge, TimeUnit.MILLISECONDS);
+        if (this._maxConnectionAgeGrace > 0)
+            builder.maxConnectionAgeGrace(this._maxConnectionAgeGrace, TimeUnit.MILLISECONDS);
+        if (this._maxConnectionIdle > 0)
+            builder.maxConnectionIdle(this._maxConnectionIdle, TimeUnit.MILLISECONDS);
+
+        // Keepalive pings detect dead connections
+        if (this._keepAliveTime > 0)
+            builder.keepAliveTime(this._keepAliveTime, TimeUnit.MILLISECONDS);
+        if (this._keepAliveTimeout > 0)
+            builder.keepAliveTimeout(this._keepAliveTimeout, TimeUnit.MILLISECONDS);
+        if (this._permitKeepAliveTime > 0)
+            builder.permitKeepAliveTime(this._permitKeepAliveTime, TimeUnit.MILLISECONDS);
+        builder.permitKeepAliveWithoutCalls(this._permitKeepAliveWithoutCalls);
+    }
+
+    private static SslContext createSslContext(ConfigParams connection) throws Exception {
+        var sslKeyPath = connection.getAsNullableString("ssl_key_file");
+        var sslCrtPath = connection.getAsNullableString("ssl_crt_file");
+        var sslCaPath = connection.getAsNullableString("ssl_ca_file");
+
+//        var ca = new ArrayList<>();
+//
+//        if (sslCaPath != null) {
+//            try(var caFile = new FileInputStream(sslCaPath)) {
+//                var caText = new String(caFile.readAllBytes(), StandardCharsets.UTF_8);
+//                var crtIndex = caText.lastIndexOf("-----BEGIN CERTIFICATE-----");
+//                if (crtIndex > -1) {
+//                    ca.add(caText.substring(crtIndex));
+//                    caText = caText.substring(0, crtIndex);
+//                }
+//            }
+//        }
+        return GrpcSslContexts.forClient()
+                // if server's cert doesn't chain to a standard root
+                .trustManager(new File(sslCaPath))
+                .keyManager(new File(sslCrtPath), new File(sslKeyPath)) // client cert
+                .build();
+    }
+
+    private static String getSocketPath(ConfigParams config) {
+        var uri = config.getAsNullableString("connection.uri");
+        if (uri != null && uri.startsWith("unix://"))
+            return uri.substring("unix://".length());
+
+        if (Objects.equals(config.getAsNullableString("connection.protocol"), "unix"))
+            return config.getAsNullableString("connection.path");
+
+        return null;
+    }
+
+    private EventLoopGroup createEventLoopGroup(int threads) {
+        var group = new EpollEventLoopGroup(threads);
+        this._eventLoopGroups.add(group);
+        return group;
+    }
+
+    private void shutdownEventLoops() {
+        this._eventLoopGroups.forEach(EventLoopGroup::shutdownGracefully);
+        this._eventLoopGroups.clear();
+    }
+
+    private static String getInProcessName(ConfigParams config) {
+        var uri = config.getAsNullableString("connection.uri");
+        if (uri != null && uri.startsWith("inproc://"))
+            return uri.substring("inproc://".length());
+
+        if (Objects.equals(config.getAsNullableString("connection.protocol"), "inproc"))
+            return config.getAsStringWithDefault("connection.port", "0");
+
+        return null;
+    }
+
     /**
      * Closes this endpoint and the GRPC server (service) that was opened earlier.
      *
@@ -237,13 +674,22 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
      */
     @Override
     public void close(String correlationId) {
-        if (_server != null) {
+        if (!_servers.isEmpty()) {
             this._uri = null;
 
             try {
-                _server.shutdown().awaitTermination(30, TimeUnit.SECONDS);
+                closeReporting();
+                _servers.forEach(Server::shutdown);
+                for (var server : _servers)
+                    server.awaitTermination(30, TimeUnit.SECONDS);
+                shutdownEventLoops();
+                removeSocketFile();
+                if (_scheduler != null)
+                    _scheduler.stop();
                 this._logger.debug(correlationId, "Closed GRPC service at %s", this._uri);
-                this._server = null;
+                this._servers.clear();
+                this._services.clear();
+                this._warmupRequests.clear();
             } catch (InterruptedException ex) {
                 this._logger.warn(correlationId, "Failed while closing GRPC service: %s", ex);
                 throw new RuntimeException(ex);
@@ -276,9 +722,6 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
         for (var registration : this._registrations) {
             registration.register();
         }
-
-        // register interceptors in service
-        _interceptors.forEach((interceptor) -> _builder.intercept(interceptor));
     }
 
     class CommandableImpl extends CommandableGrpc.CommandableImplBase {
@@ -294,12 +737,25 @@ public class GrpcEndpoint implements IOpenable, IConfigurable, IReferenceable {
     }
 
     /**
-     * Registers a service with related implementation
+     * Registers a service with related implementation.
+     * Services are registered once and shared by all listeners.
      *
      * @param service a GRPC service object.
      */
     public void registerService(ServerServiceDefinition service) {
-        this._builder.addService(service);
+        this._services.add(service);
+    }
+
+    /**
+     * Registers a request sent to a method during warm-up. Requests shall be safe to execute,
+     * like read operations or operations on synthetic data. Only unary and server streaming
+     * methods can be warmed up.
+     *
+     * @param fullMethodName a full name of the method, including the service name.
+     * @param request        a request message.
+     */
+    public void registerWarmupRequest(String fullMethodName, Object request) {
+        this._warmupRequests.add(Map.entry(fullMethodName, request));
     }
 
 }
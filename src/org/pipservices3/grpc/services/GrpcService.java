@@ -1,7 +1,11 @@
 package org.pipservices3.grpc.services;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.GeneratedMessageV3;
+import com.google.protobuf.Message;
+import com.google.protobuf.MessageLite;
 import io.grpc.*;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.ServerCalls;
 import io.grpc.stub.StreamObserver;
 import org.pipservices3.commons.config.ConfigParams;
@@ -15,13 +19,20 @@ import org.pipservices3.commons.validate.Schema;
 import org.pipservices3.components.count.CompositeCounters;
 import org.pipservices3.components.log.CompositeLogger;
 import org.pipservices3.components.trace.CompositeTracer;
+import org.pipservices3.grpc.cache.SingleFlight;
+import org.pipservices3.grpc.codecs.ZeroCopyMarshaller;
+import org.pipservices3.grpc.validate.CompiledValidator;
 import org.pipservices3.rpc.services.IRegisterable;
 import org.pipservices3.rpc.services.InstrumentTiming;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 import static io.grpc.MethodDescriptor.generateFullMethodName;
-import static io.grpc.stub.ServerCalls.asyncUnaryCall;
+import static io.grpc.stub.ServerCalls.*;
 
 /**
  * Used for creating GRPC endpoints. An endpoint is a URL, at which a given service can be accessed by a client.
@@ -43,6 +54,10 @@ import static io.grpc.stub.ServerCalls.asyncUnaryCall;
  *   - ssl_key_file:         the SSL private key in PEM
  *   - ssl_crt_file:         the SSL certificate in PEM
  *   - ssl_ca_file:          the certificate authorities (root cerfiticates) in PEM
+ * - options:
+ *   - stream_max_buffered_bytes: maximum size of messages buffered ahead of a slow client per stream (default: 1 MB)
+ *   - serialized_cache_size: maximum number of pre-serialized responses kept per method (default: 1000)
+ *   - zero_copy_threshold:   minimum size in bytes of requests parsed directly from transport buffers (default: 0, disabled)
  * </pre>
  * <p>
  * ### References ###
@@ -122,11 +137,16 @@ public abstract class GrpcService implements IOpenable, IConfigurable, IReferenc
     private IReferences _references;
     private boolean _localEndpoint;
     private final IRegisterable _registrable;
-    //    private List<Interceptor> _interceptors = new List<Interceptor>();
+    private final List<ServerInterceptor> _interceptors = new ArrayList<>();
+    private final Map<String, List<ServerInterceptor>> _methodInterceptors = new HashMap<>();
     //    private _implementation: any = {};
 
     Map<String, CommandFunction> _commandableMethods = new HashMap<>();
     private boolean _opened = false;
+    private long _streamMaxBufferedBytes = 1024 * 1024;
+    private int _serializedCacheSize = 1000;
+    private final Map<String, PreSerializedMarshaller<?>> _responseMarshallers = new HashMap<>();
+    private int _zeroCopyThreshold = 0;
 
     /**
      * The GRPC endpoint that exposes this service.
@@ -167,6 +187,10 @@ public abstract class GrpcService implements IOpenable, IConfigurable, IReferenc
 
         this._config = config;
         this._dependencyResolver.configure(config);
+
+        this._streamMaxBufferedBytes = config.getAsLongWithDefault("options.stream_max_buffered_bytes", this._streamMaxBufferedBytes);
+        this._serializedCacheSize = config.getAsIntegerWithDefault("options.serialized_cache_size", this._serializedCacheSize);
+        this._zeroCopyThreshold = config.getAsIntegerWithDefault("options.zero_copy_threshold", this._zeroCopyThreshold);
     }
 
     /**
@@ -291,57 +315,460 @@ public abstract class GrpcService implements IOpenable, IConfigurable, IReferenc
     }
 
     private void registerService() {
+        _interceptors.clear();
+        _methodInterceptors.clear();
         this.register();
 
         if (_endpoint != null) {
-            var serviceDefinitions = _builder.build();
+            var serviceDefinitions = interceptMethods(_builder.build());
             _endpoint.registerService(serviceDefinitions);
         }
     }
 
+    private ServerServiceDefinition interceptMethods(ServerServiceDefinition definition) {
+        if (_interceptors.isEmpty() && _methodInterceptors.isEmpty())
+            return definition;
+
+        // Chains are built once, so calls to methods without interceptors pay nothing
+        var builder = ServerServiceDefinition.builder(definition.getServiceDescriptor());
+        for (var method : definition.getMethods()) {
+            var name = method.getMethodDescriptor().getBareMethodName();
+            var interceptors = new ArrayList<>(_interceptors);
+            interceptors.addAll(_methodInterceptors.getOrDefault(name, List.of()));
+            builder.addMethod(interceptMethod(method, interceptors));
+        }
+        return builder.build();
+    }
+
+    private static <TRequest, TResponse> ServerMethodDefinition<TRequest, TResponse> interceptMethod(
+            ServerMethodDefinition<TRequest, TResponse> method, List<ServerInterceptor> interceptors) {
+        // Interceptors are called in the order of registration
+        var handler = method.getServerCallHandler();
+        for (var index = interceptors.size() - 1; index >= 0; index--) {
+            var interceptor = interceptors.get(index);
+            var next = handler;
+            handler = (call, headers) -> interceptor.interceptCall(call, headers, next);
+        }
+        return method.withServerCallHandler(handler);
+    }
+
     /**
-     * Registers a middleware for methods in GRPC endpoint.
+     * Registers a middleware for all methods of this service.
+     * Middlewares are called in the order of registration and do not affect other services in the endpoint.
      *
      * @param action an action function that is called when middleware is invoked.
      */
     protected void registerInterceptor(InterceptorFunc action) {
+        _interceptors.add(new Interceptor(action));
+    }
+
+    /**
+     * Registers a middleware for a method of this service. It is called after
+     * middlewares registered for all methods.
+     *
+     * @param name   a method name.
+     * @param action an action function that is called when middleware is invoked.
+     */
+    protected void registerMethodInterceptor(String name, InterceptorFunc action) {
+        _methodInterceptors.computeIfAbsent(name, k -> new ArrayList<>()).add(new Interceptor(action));
+    }
+
+    /**
+     * Registers a request sent to the method during warm-up of GRPC endpoint.
+     * The request shall be safe to execute, like a read operation or an operation on synthetic data.
+     *
+     * @param name    a name of the registered unary or server streaming method.
+     * @param request a request message.
+     * @see GrpcEndpoint#registerWarmupRequest
+     */
+    protected void registerWarmupRequest(String name, Object request) {
         if (this._endpoint == null) return;
-        this._endpoint._interceptors.add(new Interceptor(action));
+        this._endpoint.registerWarmupRequest(generateFullMethodName(_serviceName, name), request);
+    }
+
+    /**
+     * Executes a call handler. When the endpoint has call scheduling enabled
+     * the handler is queued according to the call priority and tenant,
+     * otherwise it is executed immediately.
+     *
+     * @param task             a call handler to execute.
+     * @param responseObserver a response observer to report rejected, discarded or failed calls.
+     */
+    protected void execute(Runnable task, StreamObserver<?> responseObserver) {
+        var scheduler = this._endpoint != null ? this._endpoint.getScheduler() : null;
+        if (scheduler == null) {
+            task.run();
+            return;
+        }
+
+        try {
+            scheduler.execute(() -> {
+                // Skip calls cancelled by clients while they were waiting in the queue
+                if (Context.current().isCancelled())
+                    return;
+                task.run();
+            }, status -> responseObserver.onError(status.asRuntimeException()));
+        } catch (RejectedExecutionException ex) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED.withDescription(ex.getMessage()).asRuntimeException());
+        }
+    }
+
+    private CompiledValidator compileSchema(String name, Schema schema) {
+        if (schema == null)
+            return null;
+
+        // Schemas are compiled against request message definitions once
+        var method = _serviceDescriptor.getMethods().stream().filter((m) -> {
+            var splitName = m.getFullMethodName().split("/");
+            return splitName.length > 1 && Objects.equals(splitName[1], name);
+        }).findFirst().orElseThrow(() -> new IllegalArgumentException("Method " + name + " is not declared"));
+
+        if (method.getRequestMarshaller() instanceof MethodDescriptor.PrototypeMarshaller) {
+            var prototype = ((MethodDescriptor.PrototypeMarshaller<?>) method.getRequestMarshaller()).getMessagePrototype();
+            if (prototype instanceof Message)
+                return CompiledValidator.forMessage(schema, ((Message) prototype).getDescriptorForType());
+        }
+        return CompiledValidator.forMap(schema);
+    }
+
+    private boolean validateRequest(CompiledValidator validator, Object request, StreamObserver<?> responseObserver) {
+        if (validator == null)
+            return true;
+
+        var err = validator.validateAndReturnException(null, request);
+        if (err == null)
+            return true;
+
+        responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(err.getMessage()).asRuntimeException());
+        return false;
+    }
+
+    private <TRequest> StreamObserver<TRequest> validateStream(CompiledValidator validator, StreamObserver<TRequest> requestObserver,
+                                                               StreamObserver<?> responseObserver) {
+        if (validator == null)
+            return requestObserver;
+
+        return new StreamObserver<>() {
+            private boolean _failed = false;
+
+            @Override
+            public void onNext(TRequest value) {
+                if (_failed) return;
+
+                if (!validateRequest(validator, value, responseObserver)) {
+                    _failed = true;
+
+                    // Let the action release resources of the rejected stream
+                    try {
+                        requestObserver.onError(Status.INVALID_ARGUMENT.withDescription("Invalid message in stream").asRuntimeException());
+                    } catch (IllegalStateException ex) {
+                        // The action tried to close the stream that is already closed
+                    }
+                    return;
+                }
+                requestObserver.onNext(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (!_failed)
+                    requestObserver.onError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!_failed)
+                    requestObserver.onCompleted();
+            }
+        };
     }
 
     /**
      * Registers a method in GRPC service.
      *
      * @param name   a method name
-     * @param schema a validation schema to validate received parameters.
+     * @param schema (optional) a validation schema compiled once to validate requests, invalid ones are rejected with INVALID_ARGUMENT status.
      * @param action an action function that is called when operation is invoked.
      */
     protected <TRequest extends GeneratedMessageV3, TResponse extends GeneratedMessageV3> void registerMethod(String name, Schema schema, GrpcFunc<TRequest, StreamObserver<TResponse>> action) {
 
+        var validator = compileSchema(name, schema);
+
         ServerCalls.UnaryMethod<TRequest, TResponse> handler = new ServerCalls.UnaryMethod<TRequest, TResponse>() {
             @Override
             public void invoke(TRequest request, StreamObserver<TResponse> responseObserver) {
-                // TODO Validation schema
+                if (!validateRequest(validator, request, responseObserver))
+                    return;
+
+                execute(() -> action.apply(request, responseObserver), responseObserver);
+            }
+        };
+
+        addMethod(name, MethodDescriptor.MethodType.UNARY, asyncUnaryCall(handler));
+    }
+
+    /**
+     * Serializes a response of a hot method once and keeps its bytes. When the same response
+     * instance is sent again by the method, the kept bytes are written to the transport
+     * without protobuf encoding. It shall be used for responses that are cached by the service
+     * and sent many times.
+     *
+     * @param name     a name of the registered method.
+     * @param response a response message that is sent repeatedly.
+     * @return the same response message.
+     */
+    protected <TResponse> TResponse cacheResponse(String name, TResponse response) {
+        var marshaller = (PreSerializedMarshaller<TResponse>) _responseMarshallers.get(name);
+        return marshaller != null ? marshaller.cache(response) : response;
+    }
+
+    /**
+     * Registers a method in GRPC service which concurrent identical calls are coalesced.
+     * While the action is executed, calls with the same request (ignoring correlation_id field)
+     * wait for its response instead of executing the action again, and the response
+     * or the error is sent to all of them. The action shall be idempotent.
+     *
+     * @param name   a method name
+     * @param schema (optional) a validation schema compiled once to validate requests, invalid ones are rejected with INVALID_ARGUMENT status.
+     * @param action an action function that is called when operation is invoked.
+     */
+    protected <TRequest extends GeneratedMessageV3, TResponse extends GeneratedMessageV3> void registerCoalescedMethod(String name, Schema schema, GrpcFunc<TRequest, StreamObserver<TResponse>> action) {
+        var flight = new SingleFlight<ByteString, TResponse>();
+        var validator = compileSchema(name, schema);
+
+        ServerCalls.UnaryMethod<TRequest, TResponse> handler = (request, responseObserver) -> {
+            if (!validateRequest(validator, request, responseObserver))
+                return;
+
+            flight.executeAsync(getCoalescingKey(request), () -> {
+                var result = new CompletableFuture<TResponse>();
+                var observer = new StreamObserver<TResponse>() {
+                    private TResponse _response;
+
+                    @Override
+                    public void onNext(TResponse value) {
+                        _response = value;
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        result.complete(_response);
+                    }
+                };
+
+                // The shared call keeps priority and tenant of the first caller but not its cancellation,
+                // otherwise the scheduler would skip it and leave other callers waiting
+                Context.current().fork().run(() -> execute(() -> action.apply(request, observer), observer));
+                return result;
+            }).whenComplete((response, error) -> {
+                if (error != null) {
+                    responseObserver.onError(error);
+                } else {
+                    responseObserver.onNext(response);
+                    responseObserver.onCompleted();
+                }
+            });
+        };
+
+        // The shared call may use the request after the caller was closed, so it cannot refer to transport buffers
+        addMethod(name, MethodDescriptor.MethodType.UNARY, asyncUnaryCall(handler), false);
+    }
+
+    private static ByteString getCoalescingKey(GeneratedMessageV3 request) {
+        // Requests that differ only in correlation ids are identical
+        var field = request.getDescriptorForType().findFieldByName("correlation_id");
+        return field != null
+                ? request.toBuilder().clearField(field).build().toByteString()
+                : request.toByteString();
+    }
+
+    /**
+     * Registers a server streaming method in GRPC service.
+     * The response observer passed to the action supports flow control
+     * and can be cast to {@link ServerCallStreamObserver}.
+     *
+     * @param name   a method name
+     * @param schema (optional) a validation schema compiled once to validate requests, invalid ones are rejected with INVALID_ARGUMENT status.
+     * @param action an action function that is called when operation is invoked.
+     */
+    protected <TRequest extends GeneratedMessageV3, TResponse extends GeneratedMessageV3> void registerServerStreamingMethod(String name, Schema schema, GrpcFunc<TRequest, StreamObserver<TResponse>> action) {
+        var streamName = this._serviceName + "." + name;
+
+        var validator = compileSchema(name, schema);
+
+        ServerCalls.ServerStreamingMethod<TRequest, TResponse> handler = (request, responseObserver) -> {
+            if (!validateRequest(validator, request, responseObserver))
+                return;
+
+            var observer = new InstrumentedStreamObserver<>(responseObserver, streamName, _counters,
+                    instrument(null, streamName));
+            _counters.incrementOne(streamName + ".received_count");
+
+            execute(() -> action.apply(request, observer), observer);
+        };
 
-                action.apply(request, responseObserver);
+        addMethod(name, MethodDescriptor.MethodType.SERVER_STREAMING, asyncServerStreamingCall(handler));
+    }
+
+    /**
+     * Sends items to a server stream in chunks. Items are pulled from the iterator
+     * only when the transport is ready, so memory usage does not depend on the result size.
+     * It shall be called from a handler registered by {@link #registerServerStreamingMethod}.
+     *
+     * @param items            an iterator or a cursor over items to send.
+     * @param chunkSize        a maximum number of items in one chunk.
+     * @param chunkBuilder     a function that converts a list of items into a chunk message.
+     * @param responseObserver a response observer of the server streaming call.
+     */
+    protected <TItem, TChunk> void streamChunks(Iterator<TItem> items, int chunkSize,
+                                                Function<List<TItem>, TChunk> chunkBuilder,
+                                                StreamObserver<TChunk> responseObserver) {
+        var size = Math.max(1, chunkSize);
+        var chunks = new Iterator<TChunk>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public TChunk next() {
+                var chunk = new ArrayList<TItem>(size);
+                while (chunk.size() < size && items.hasNext())
+                    chunk.add(items.next());
+                return chunkBuilder.apply(chunk);
             }
         };
 
+        createOutboundStream(responseObserver, chunks).start();
+    }
+
+    /**
+     * Creates an adapter that sends messages from an iterator or a cursor to a server stream
+     * respecting transport flow control. The adapter collects measurements of time spent
+     * waiting for slow clients. Call {@link OutboundStream#start} to begin sending.
+     *
+     * @param responseObserver a response observer of the server streaming call.
+     * @param producer         a producer of messages.
+     * @return the outbound stream adapter.
+     */
+    protected <T> OutboundStream<T> createOutboundStream(StreamObserver<T> responseObserver, Iterator<T> producer) {
+        return new OutboundStream<>(responseObserver, producer)
+                .withCounters(this._counters, getStreamName(responseObserver));
+    }
+
+    /**
+     * Creates an adapter that sends messages from a reactive publisher to a server stream
+     * respecting transport flow control. Messages received ahead of the transport are buffered
+     * up to "options.stream_max_buffered_bytes". Call {@link OutboundStream#start} to begin sending.
+     *
+     * @param responseObserver a response observer of the server streaming call.
+     * @param producer         a publisher of messages.
+     * @return the outbound stream adapter.
+     */
+    protected <T> OutboundStream<T> createOutboundStream(StreamObserver<T> responseObserver, Flow.Publisher<T> producer) {
+        return new OutboundStream<>(responseObserver, producer)
+                .withCounters(this._counters, getStreamName(responseObserver))
+                .withMaxBufferedBytes(this._streamMaxBufferedBytes);
+    }
+
+    private String getStreamName(StreamObserver<?> responseObserver) {
+        return responseObserver instanceof InstrumentedStreamObserver
+                ? ((InstrumentedStreamObserver<?>) responseObserver).getName()
+                : this._serviceName;
+    }
+
+    /**
+     * Registers a client streaming method in GRPC service.
+     * The action receives a response observer and returns an observer
+     * that receives the stream of requests.
+     *
+     * @param name   a method name
+     * @param schema (optional) a validation schema compiled once to validate received messages, the stream is closed with INVALID_ARGUMENT status on the first invalid one.
+     * @param action an action function that is called when operation is invoked.
+     */
+    protected <TRequest extends GeneratedMessageV3, TResponse extends GeneratedMessageV3> void registerClientStreamingMethod(String name, Schema schema, GrpcStreamFunc<TRequest, TResponse> action) {
+        var streamName = this._serviceName + "." + name;
+
+        var validator = compileSchema(name, schema);
+
+        ServerCalls.ClientStreamingMethod<TRequest, TResponse> handler = (responseObserver) -> {
+            var observer = new InstrumentedStreamObserver<>(responseObserver, streamName, _counters,
+                    instrument(null, streamName));
+            return observer.wrapInbound(validateStream(validator, action.apply(observer), observer));
+        };
+
+        addMethod(name, MethodDescriptor.MethodType.CLIENT_STREAMING, asyncClientStreamingCall(handler));
+    }
+
+    /**
+     * Registers a bidirectional streaming method in GRPC service.
+     * The action receives a response observer and returns an observer
+     * that receives the stream of requests.
+     *
+     * @param name   a method name
+     * @param schema (optional) a validation schema compiled once to validate received messages, the stream is closed with INVALID_ARGUMENT status on the first invalid one.
+     * @param action an action function that is called when operation is invoked.
+     */
+    protected <TRequest extends GeneratedMessageV3, TResponse extends GeneratedMessageV3> void registerBidiStreamingMethod(String name, Schema schema, GrpcStreamFunc<TRequest, TResponse> action) {
+        var streamName = this._serviceName + "." + name;
+
+        var validator = compileSchema(name, schema);
+
+        ServerCalls.BidiStreamingMethod<TRequest, TResponse> handler = (responseObserver) -> {
+            var observer = new InstrumentedStreamObserver<>(responseObserver, streamName, _counters,
+                    instrument(null, streamName));
+            return observer.wrapInbound(validateStream(validator, action.apply(observer), observer));
+        };
+
+        addMethod(name, MethodDescriptor.MethodType.BIDI_STREAMING, asyncBidiStreamingCall(handler));
+    }
+
+    private <TRequest, TResponse> void addMethod(String name, MethodDescriptor.MethodType type, ServerCallHandler<TRequest, TResponse> handler) {
+        // Single requests live until the call is closed, so they can refer to transport buffers
+        addMethod(name, type, handler, type.clientSendsOneMessage());
+    }
+
+    private <TRequest, TResponse> void addMethod(String name, MethodDescriptor.MethodType type, ServerCallHandler<TRequest, TResponse> handler,
+                                                 boolean aliasing) {
         try {
             var method = _serviceDescriptor.getMethods().stream().filter((m) -> {
                 var splitName = m.getFullMethodName().split("/");
                 return splitName.length > 1 && Objects.equals(splitName[1], name);
             }).findFirst();
 
+            if (method.get().getType() != type)
+                throw new IllegalArgumentException("Method " + name + " is declared as " + method.get().getType() + " but registered as " + type);
+
+            // Responses registered via cacheResponse are written from their serialized bytes
+            var responseMarshaller = new PreSerializedMarshaller<>(
+                    (MethodDescriptor.Marshaller<TResponse>) method.get().getResponseMarshaller(), _serializedCacheSize);
+            _responseMarshallers.put(name, responseMarshaller);
+
+            var requestMarshaller = (MethodDescriptor.Marshaller<TRequest>) method.get().getRequestMarshaller();
+            if (_zeroCopyThreshold > 0 && requestMarshaller instanceof MethodDescriptor.PrototypeMarshaller) {
+                var prototype = ((MethodDescriptor.PrototypeMarshaller<?>) requestMarshaller).getMessagePrototype();
+                var zeroCopyMarshaller = new ZeroCopyMarshaller<>((MessageLite) prototype, _zeroCopyThreshold, aliasing);
+                // Requests are released when the call is closed, even if the handler was never invoked
+                if (aliasing)
+                    handler = (ServerCallHandler<TRequest, TResponse>) (ServerCallHandler<?, ?>)
+                            zeroCopyMarshaller.releaseOnClose((ServerCallHandler<MessageLite, TResponse>) (ServerCallHandler<?, ?>) handler);
+                requestMarshaller = (MethodDescriptor.Marshaller<TRequest>) zeroCopyMarshaller;
+            }
+
             MethodDescriptor<TRequest, TResponse> METHOD_INVOKE = MethodDescriptor.<TRequest, TResponse>newBuilder()
-                    .setType(io.grpc.MethodDescriptor.MethodType.UNARY)
+                    .setType(type)
                     .setFullMethodName(generateFullMethodName(
                             _serviceName, name))
-                    .setRequestMarshaller((MethodDescriptor.Marshaller<TRequest>) method.get().getRequestMarshaller())
-                    .setResponseMarshaller((MethodDescriptor.Marshaller<TResponse>) method.get().getResponseMarshaller())
+                    .setRequestMarshaller(requestMarshaller)
+                    .setResponseMarshaller(responseMarshaller)
                     .build();
 
-            _builder.addMethod(METHOD_INVOKE, asyncUnaryCall(handler));
+            _builder.addMethod(METHOD_INVOKE, handler);
 
         } catch (Exception ex) {
             System.err.println("Error register method");
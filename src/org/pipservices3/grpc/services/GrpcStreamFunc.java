@@ -0,0 +1,8 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.stub.StreamObserver;
+
+@FunctionalInterface
+public interface GrpcStreamFunc<TRequest, TResponse> {
+    StreamObserver<TRequest> apply(StreamObserver<TResponse> responseObserver);
+}
@@ -0,0 +1,154 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.pipservices3.components.count.CompositeCounters;
+import org.pipservices3.rpc.services.InstrumentTiming;
+
+/**
+ * Response observer for streaming calls that keeps flow control of the underlying
+ * call ({@link #isReady}, {@link #setOnReadyHandler}) and collects measurements
+ * per stream (execution time) and per message (sent and received counts).
+ *
+ * @param <T> the type of response messages.
+ */
+class InstrumentedStreamObserver<T> extends ServerCallStreamObserver<T> {
+    private final ServerCallStreamObserver<T> _delegate;
+    private final String _name;
+    private final CompositeCounters _counters;
+    private final InstrumentTiming _timing;
+    private volatile Runnable _onCancelHandler;
+    private volatile Runnable _onReadyHandler;
+    private boolean _completed = false;
+
+    InstrumentedStreamObserver(StreamObserver<T> delegate, String name, CompositeCounters counters, InstrumentTiming timing) {
+        _delegate = (ServerCallStreamObserver<T>) delegate;
+        _name = name;
+        _counters = counters;
+        _timing = timing;
+
+        _delegate.setOnCancelHandler(() -> {
+            complete(Status.CANCELLED.withDescription("Stream " + _name + " was cancelled").asRuntimeException());
+            var handler = _onCancelHandler;
+            if (handler != null)
+                handler.run();
+        });
+
+        // Handlers are installed upfront, so they can be replaced later
+        // even when the call is executed asynchronously by the call scheduler
+        _delegate.setOnReadyHandler(() -> {
+            var handler = _onReadyHandler;
+            if (handler != null)
+                handler.run();
+        });
+    }
+
+    /**
+     * Gets the stream name used as counters prefix.
+     *
+     * @return the stream name.
+     */
+    String getName() {
+        return _name;
+    }
+
+    /**
+     * Wraps inbound stream observer to count received messages.
+     *
+     * @param requestObserver a request observer returned by the call handler.
+     * @return the wrapped request observer.
+     */
+    <R> StreamObserver<R> wrapInbound(StreamObserver<R> requestObserver) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(R value) {
+                _counters.incrementOne(_name + ".received_count");
+                requestObserver.onNext(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                requestObserver.onError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                requestObserver.onCompleted();
+            }
+        };
+    }
+
+    private synchronized void complete(Throwable error) {
+        if (_completed) return;
+        _completed = true;
+
+        if (error instanceof Exception)
+            _timing.endFailure((Exception) error);
+        _timing.endTiming();
+    }
+
+    @Override
+    public void onNext(T value) {
+        _delegate.onNext(value);
+        _counters.incrementOne(_name + ".sent_count");
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        complete(t);
+        _delegate.onError(t);
+    }
+
+    @Override
+    public void onCompleted() {
+        complete(null);
+        _delegate.onCompleted();
+    }
+
+    @Override
+    public boolean isReady() {
+        return _delegate.isReady();
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable onReadyHandler) {
+        _onReadyHandler = onReadyHandler;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return _delegate.isCancelled();
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable onCancelHandler) {
+        _onCancelHandler = onCancelHandler;
+    }
+
+    @Override
+    public void setCompression(String compression) {
+        _delegate.setCompression(compression);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void disableAutoInboundFlowControl() {
+        _delegate.disableAutoInboundFlowControl();
+    }
+
+    @Override
+    public void disableAutoRequest() {
+        _delegate.disableAutoRequest();
+    }
+
+    @Override
+    public void request(int count) {
+        _delegate.request(count);
+    }
+
+    @Override
+    public void setMessageCompression(boolean enable) {
+        _delegate.setMessageCompression(enable);
+    }
+}
@@ -0,0 +1,158 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.*;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.pipservices3.grpc.load.LoadReport;
+import org.pipservices3.grpc.load.LoadReportRequest;
+import org.pipservices3.grpc.load.LoadReporterGrpc;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Streams out-of-band load reports of GRPC endpoint: calls in progress, calls waiting
+ * in the scheduler queue and process CPU utilization. Clients watch reports of all backends
+ * and send more calls to less loaded ones, instead of probing them with real calls.
+ * <p>
+ * Calls in progress are counted by the interceptor created by {@link #createInterceptor}.
+ *
+ * @see GrpcEndpoint
+ */
+class LoadReportService extends LoadReporterGrpc.LoadReporterImplBase {
+    private static final long MIN_INTERVAL = 100;
+    private static final String HEALTH_SERVICE_NAME = "grpc.health.v1.Health";
+
+    private final AtomicLong _inFlightCalls = new AtomicLong();
+    private final IntSupplier _queueSize;
+    private final long _defaultInterval;
+    private final List<ServerCallStreamObserver<LoadReport>> _watchers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService _timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        var thread = new Thread(r, "grpc-load-reports");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a new instance of the service.
+     *
+     * @param queueSize       a function that returns the number of queued calls.
+     * @param defaultInterval an interval between reports in milliseconds when clients do not set one.
+     */
+    public LoadReportService(IntSupplier queueSize, long defaultInterval) {
+        _queueSize = queueSize;
+        _defaultInterval = defaultInterval;
+    }
+
+    /**
+     * Creates a server interceptor that counts calls in progress.
+     *
+     * @return a server interceptor.
+     */
+    public ServerInterceptor createInterceptor() {
+        return new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                // Watchers and health checks are not a load
+                var service = call.getMethodDescriptor().getServiceName();
+                if (LoadReporterGrpc.SERVICE_NAME.equals(service) || HEALTH_SERVICE_NAME.equals(service))
+                    return next.startCall(call, headers);
+
+                _inFlightCalls.incrementAndGet();
+                ServerCall.Listener<ReqT> listener;
+                try {
+                    listener = next.startCall(call, headers);
+                } catch (RuntimeException ex) {
+                    _inFlightCalls.decrementAndGet();
+                    throw ex;
+                }
+
+                return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+                    private boolean _done = false;
+
+                    private void done() {
+                        if (!_done) {
+                            _done = true;
+                            _inFlightCalls.decrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        done();
+                        super.onComplete();
+                    }
+
+                    @Override
+                    public void onCancel() {
+                        done();
+                        super.onCancel();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Creates a load report with the current values.
+     *
+     * @return a load report.
+     */
+    public LoadReport getLoad() {
+        return LoadReport.newBuilder()
+                .setTime(System.currentTimeMillis())
+                .setInFlightCalls(_inFlightCalls.get())
+                .setQueueSize(_queueSize.getAsInt())
+                .setCpuUtilization(getCpuUtilization())
+                .build();
+    }
+
+    private static double getCpuUtilization() {
+        var os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean)
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad();
+
+        var average = os.getSystemLoadAverage();
+        return average < 0 ? -1 : Math.min(1.0, average / os.getAvailableProcessors());
+    }
+
+    @Override
+    public void watchLoad(LoadReportRequest request, StreamObserver<LoadReport> responseObserver) {
+        var observer = (ServerCallStreamObserver<LoadReport>) responseObserver;
+        var interval = request.getInterval() > 0 ? Math.max(MIN_INTERVAL, request.getInterval()) : _defaultInterval;
+
+        _watchers.add(observer);
+        var task = _timer.scheduleAtFixedRate(() -> {
+            // Skip reports while the client does not read them
+            synchronized (observer) {
+                if (observer.isReady() && !observer.isCancelled())
+                    observer.onNext(getLoad());
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+
+        observer.setOnCancelHandler(() -> {
+            task.cancel(false);
+            _watchers.remove(observer);
+        });
+    }
+
+    /**
+     * Completes streams of all watching clients and stops sending reports.
+     */
+    public void close() {
+        _timer.shutdownNow();
+        for (var watcher : _watchers) {
+            try {
+                synchronized (watcher) {
+                    watcher.onCompleted();
+                }
+            } catch (IllegalStateException ex) {
+                // The call is already closed
+            }
+        }
+        _watchers.clear();
+    }
+}
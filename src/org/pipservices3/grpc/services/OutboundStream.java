@@ -0,0 +1,351 @@
+package org.pipservices3.grpc.services;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.pipservices3.components.count.ICounters;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+
+/**
+ * Sends messages pulled from a producer to a server stream respecting transport flow control.
+ * The producer is asked for the next message only when {@link ServerCallStreamObserver#isReady}
+ * reports that the transport can accept more data, so slow clients do not cause
+ * unbounded buffering on the server.
+ * <p>
+ * The producer can be an {@link Iterator} (a cursor) that is pulled one message at a time,
+ * or a reactive {@link Flow.Publisher}. Messages received from a publisher ahead of the transport
+ * are kept in a buffer limited by the max buffered bytes budget; the publisher is asked
+ * for more messages only while the buffer is below the budget. Iterators that implement
+ * {@link AutoCloseable} are closed when the stream is completed or cancelled.
+ * <p>
+ * When counters are set the stream collects the following measurements:
+ * <pre>
+ * - [name].blocked_time:     time in milliseconds the stream waited for the transport to become ready
+ * - [name].blocked_count:    number of times the stream waited for the transport
+ * </pre>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * private void getData(MyDataRequest request, StreamObserver<MyData> responseObserver) {
+ *     var cursor = this._controller.getDataCursor(request.getCorrelationId());
+ *     new OutboundStream<>(responseObserver, cursor)
+ *             .withCounters(this._counters, "mydata.get_data")
+ *             .start();
+ * }
+ * }
+ * </pre>
+ *
+ * @param <T> the type of sent messages.
+ * @see GrpcService#registerServerStreamingMethod
+ */
+public class OutboundStream<T> {
+    private final ServerCallStreamObserver<T> _observer;
+    private final Iterator<T> _iterator;
+    private final Flow.Publisher<T> _publisher;
+    private final ArrayDeque<T> _buffer = new ArrayDeque<>();
+    private final Object _lock = new Object();
+    private ICounters _counters;
+    private String _name;
+    private long _maxBufferedBytes = 1024 * 1024;
+    private long _bufferedBytes = 0;
+    private long _blockedSince = -1;
+    private Flow.Subscription _subscription;
+    private boolean _requested = false;
+    private boolean _publisherCompleted = false;
+    private Throwable _publisherError;
+    private boolean _draining = false;
+    private boolean _pending = false;
+    private boolean _done = false;
+
+    /**
+     * Creates a new instance of the stream that pulls messages from an iterator.
+     *
+     * @param responseObserver a response observer of the server streaming call.
+     * @param producer         a producer of messages.
+     */
+    public OutboundStream(StreamObserver<T> responseObserver, Iterator<T> producer) {
+        _observer = (ServerCallStreamObserver<T>) responseObserver;
+        _iterator = producer;
+        _publisher = null;
+    }
+
+    /**
+     * Creates a new instance of the stream that receives messages from a reactive publisher.
+     *
+     * @param responseObserver a response observer of the server streaming call.
+     * @param producer         a publisher of messages.
+     */
+    public OutboundStream(StreamObserver<T> responseObserver, Flow.Publisher<T> producer) {
+        _observer = (ServerCallStreamObserver<T>) responseObserver;
+        _iterator = null;
+        _publisher = producer;
+    }
+
+    /**
+     * Sets counters to collect measurements of time spent waiting for the transport.
+     *
+     * @param counters counters to record measurements.
+     * @param name     a name of the stream used as counters prefix.
+     * @return this stream.
+     */
+    public OutboundStream<T> withCounters(ICounters counters, String name) {
+        _counters = counters;
+        _name = name;
+        return this;
+    }
+
+    /**
+     * Sets the maximum size of messages buffered ahead of the transport.
+     *
+     * @param maxBufferedBytes the buffer budget in bytes.
+     * @return this stream.
+     */
+    public OutboundStream<T> withMaxBufferedBytes(long maxBufferedBytes) {
+        _maxBufferedBytes = Math.max(1, maxBufferedBytes);
+        return this;
+    }
+
+    /**
+     * Gets the size of messages received from the publisher but not sent yet.
+     *
+     * @return the buffered size in bytes.
+     */
+    public long getBufferedBytes() {
+        synchronized (_lock) {
+            return _bufferedBytes;
+        }
+    }
+
+    /**
+     * Starts sending messages. It returns immediately, the remaining
+     * messages are sent as the transport becomes ready.
+     */
+    public void start() {
+        _observer.setOnReadyHandler(this::drain);
+        _observer.setOnCancelHandler(this::cancel);
+
+        if (_publisher != null)
+            _publisher.subscribe(new Subscriber());
+        else
+            drain();
+    }
+
+    /**
+     * Checks if all messages were sent or the stream was terminated.
+     *
+     * @return true if the stream is completed and false otherwise.
+     */
+    public boolean isDone() {
+        synchronized (_lock) {
+            return _done;
+        }
+    }
+
+    private static long sizeOf(Object message) {
+        return message instanceof MessageLite ? ((MessageLite) message).getSerializedSize() : 0;
+    }
+
+    private void drain() {
+        synchronized (_lock) {
+            if (_done) return;
+            // Ready signals received while sending are replayed by the active drain
+            if (_draining) {
+                _pending = true;
+                return;
+            }
+            _draining = true;
+        }
+
+        while (true) {
+            try {
+                while (true) {
+                    if (_observer.isCancelled()) {
+                        cancel();
+                        break;
+                    }
+
+                    if (!_observer.isReady()) {
+                        markBlocked();
+                        break;
+                    }
+                    markUnblocked();
+
+                    if (_iterator != null) {
+                        if (!_iterator.hasNext()) {
+                            finish(null);
+                            break;
+                        }
+                        _observer.onNext(_iterator.next());
+                    } else {
+                        var message = poll();
+                        if (message == null)
+                            break;
+                        _observer.onNext(message);
+                    }
+                }
+            } catch (Exception ex) {
+                finish(ex);
+            }
+
+            if (_publisher != null)
+                requestMore();
+
+            synchronized (_lock) {
+                if (!_pending || _done) {
+                    _draining = false;
+                    return;
+                }
+                _pending = false;
+            }
+        }
+    }
+
+    private T poll() {
+        Throwable error;
+        synchronized (_lock) {
+            var message = _buffer.poll();
+            if (message != null) {
+                _bufferedBytes -= sizeOf(message);
+                return message;
+            }
+
+            if (!_publisherCompleted)
+                return null;
+            error = _publisherError;
+        }
+
+        finish(error);
+        return null;
+    }
+
+    private void requestMore() {
+        Flow.Subscription subscription;
+        synchronized (_lock) {
+            if (_done || _requested || _publisherCompleted || _subscription == null)
+                return;
+            if (_bufferedBytes >= _maxBufferedBytes)
+                return;
+            _requested = true;
+            subscription = _subscription;
+        }
+
+        // Publisher may deliver the message synchronously
+        subscription.request(1);
+    }
+
+    private void markBlocked() {
+        synchronized (_lock) {
+            if (_blockedSince < 0)
+                _blockedSince = System.nanoTime();
+        }
+    }
+
+    private void markUnblocked() {
+        long blockedTime;
+        synchronized (_lock) {
+            if (_blockedSince < 0) return;
+            blockedTime = (System.nanoTime() - _blockedSince) / 1000000;
+            _blockedSince = -1;
+        }
+
+        if (_counters != null) {
+            _counters.stats(_name + ".blocked_time", blockedTime);
+            _counters.incrementOne(_name + ".blocked_count");
+        }
+    }
+
+    private void cancel() {
+        Flow.Subscription subscription;
+        synchronized (_lock) {
+            if (_done) return;
+            _done = true;
+            _buffer.clear();
+            _bufferedBytes = 0;
+            subscription = _subscription;
+        }
+
+        if (subscription != null)
+            subscription.cancel();
+
+        closeProducer();
+    }
+
+    private void closeProducer() {
+        if (_iterator instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) _iterator).close();
+            } catch (Exception ex) {
+                // Ignore errors while releasing producer resources
+            }
+        }
+    }
+
+    private void finish(Throwable error) {
+        Flow.Subscription subscription;
+        synchronized (_lock) {
+            if (_done) return;
+            _done = true;
+            subscription = !_publisherCompleted ? _subscription : null;
+        }
+
+        // Stop the publisher when sending failed
+        if (subscription != null)
+            subscription.cancel();
+
+        closeProducer();
+
+        if (_observer.isCancelled())
+            return;
+
+        if (error != null)
+            _observer.onError(error);
+        else
+            _observer.onCompleted();
+    }
+
+    private class Subscriber implements Flow.Subscriber<T> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            synchronized (_lock) {
+                if (_subscription != null || _done) {
+                    subscription.cancel();
+                    return;
+                }
+                _subscription = subscription;
+            }
+            requestMore();
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (_lock) {
+                _requested = false;
+                if (_done) return;
+                _buffer.add(item);
+                _bufferedBytes += sizeOf(item);
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (_lock) {
+                _publisherCompleted = true;
+                _publisherError = throwable;
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (_lock) {
+                _publisherCompleted = true;
+            }
+            drain();
+        }
+    }
+}
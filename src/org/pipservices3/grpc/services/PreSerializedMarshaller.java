@@ -0,0 +1,138 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Marshaller that writes serialized bytes kept for hot response messages.
+ * Messages registered via {@link #cache} are serialized once, and when the same
+ * message instance is sent again its bytes are written directly to the transport,
+ * skipping protobuf encoding. Other messages are serialized by the wrapped marshaller.
+ * <p>
+ * Messages are matched by identity, so a handler shall send the same instance
+ * it has registered. The number of kept messages is limited, the least recently
+ * sent ones are dropped first. Until the first message is registered
+ * messages are passed to the wrapped marshaller without any synchronization.
+ *
+ * @param <T> the type of messages.
+ * @see GrpcService#cacheResponse
+ */
+public class PreSerializedMarshaller<T> implements MethodDescriptor.Marshaller<T> {
+    private final MethodDescriptor.Marshaller<T> _marshaller;
+    private final Map<IdentityKey, byte[]> _serialized;
+    private volatile boolean _used = false;
+
+    /**
+     * Creates a new instance of the marshaller.
+     *
+     * @param marshaller a marshaller to parse messages and serialize not cached messages.
+     * @param maxSize    a maximum number of kept serialized messages.
+     */
+    public PreSerializedMarshaller(MethodDescriptor.Marshaller<T> marshaller, int maxSize) {
+        _marshaller = marshaller;
+        _serialized = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IdentityKey, byte[]> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Serializes a message and keeps its bytes to send them when the message is sent again.
+     *
+     * @param message a message that is sent repeatedly.
+     * @return the same message.
+     */
+    public T cache(T message) {
+        var key = new IdentityKey(message);
+        synchronized (_serialized) {
+            if (_serialized.containsKey(key))
+                return message;
+        }
+
+        try (var stream = _marshaller.stream(message)) {
+            var bytes = stream.readAllBytes();
+            synchronized (_serialized) {
+                _serialized.put(key, bytes);
+            }
+            _used = true;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        return message;
+    }
+
+    /**
+     * Gets the number of kept serialized messages.
+     *
+     * @return the number of kept messages.
+     */
+    public int getSize() {
+        synchronized (_serialized) {
+            return _serialized.size();
+        }
+    }
+
+    @Override
+    public InputStream stream(T value) {
+        // Methods that never cache responses do not take the lock
+        if (!_used)
+            return _marshaller.stream(value);
+
+        byte[] bytes;
+        synchronized (_serialized) {
+            bytes = _serialized.get(new IdentityKey(value));
+        }
+
+        return bytes != null ? new SerializedStream(bytes) : _marshaller.stream(value);
+    }
+
+    @Override
+    public T parse(InputStream stream) {
+        return _marshaller.parse(stream);
+    }
+
+    private static class IdentityKey {
+        private final Object _value;
+
+        IdentityKey(Object value) {
+            _value = value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IdentityKey && ((IdentityKey) other)._value == _value;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(_value);
+        }
+    }
+
+    /**
+     * Stream over serialized bytes that the transport can drain without copying through a buffer.
+     */
+    private static class SerializedStream extends ByteArrayInputStream implements KnownLength, Drainable {
+        SerializedStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            var length = count - pos;
+            target.write(buf, pos, length);
+            pos = count;
+            return length;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.pipservices3.grpc.test;
 
+import org.pipservices3.grpc.clients.CommandBulkResult;
 import org.pipservices3.grpc.clients.CommandableGrpcClient;
 
+import java.util.Iterator;
+
 public class TestCommandableGrpcClient  extends CommandableGrpcClient {
     /**
      * Creates a new instance of the client.
@@ -27,4 +30,18 @@ public class TestCommandableGrpcClient  extends CommandableGrpcClient {
     protected <T> T callCommand(Class<T> returnType, String name, String correlationId, Object params) {
         return super.callCommand(returnType, name, correlationId, params);
     }
+
+    /**
+     * Calls a remote method many times via GRPC commandable protocol.
+     * The complete route to remote method is defined as serviceName + "." + name.
+     *
+     * @param name              a name of the command to call.
+     * @param correlationId     (optional) transaction id to trace execution through call chain.
+     * @param params            an iterator over parameters of each command call.
+     * @return the summary of executed commands.
+     */
+    @Override
+    public CommandBulkResult bulkCommand(String name, String correlationId, Iterator<?> params) {
+        return super.bulkCommand(name, correlationId, params);
+    }
 }
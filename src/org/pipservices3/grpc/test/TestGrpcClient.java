@@ -2,6 +2,8 @@ package org.pipservices3.grpc.test;
 
 import org.pipservices3.grpc.clients.GrpcClient;
 
+import java.util.Iterator;
+
 /**
  * GRPC client used for automated testing.
  */
@@ -22,4 +24,17 @@ public class TestGrpcClient extends GrpcClient {
     public  <TRequest, TResponse> TResponse call(String methodName, String correlationId, TRequest request) {
         return super.call(methodName, correlationId, request);
     }
+
+    /**
+     * Calls a remote server streaming method via GRPC protocol.
+     *
+     * @param methodName        a method name to called
+     * @param correlationId     (optional) transaction id to trace execution through call chain.
+     * @param request           (optional) request object.
+     * @return an iterator over received messages.
+     */
+    @Override
+    public <TRequest, TResponse> Iterator<TResponse> callStream(String methodName, String correlationId, TRequest request) {
+        return super.callStream(methodName, correlationId, request);
+    }
 }
@@ -0,0 +1,459 @@
+package org.pipservices3.grpc.validate;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import org.pipservices3.commons.convert.TypeCode;
+import org.pipservices3.commons.convert.TypeConverter;
+import org.pipservices3.commons.reflect.TypeMatcher;
+import org.pipservices3.commons.validate.*;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Validator compiled from a {@link Schema} once and used to validate many values.
+ * <p>
+ * Generic schemas walk values through reflection and look up each property among all
+ * properties of the value on every call. A compiled validator resolves everything it can
+ * in advance: property lookups, nested schemas and type checks. Protobuf messages are validated
+ * through precomputed field descriptors, and since protobuf already enforces field types, types
+ * declared in the schema are checked against the message definition at compile time.
+ * <p>
+ * In proto3 only strings, bytes, repeated and message fields, fields in oneofs and optional fields
+ * can be detected as missing, so empty strings and bytes are treated as missing values and
+ * numeric and boolean fields without presence are always treated as set.
+ * <p>
+ * Rules are validated as in the schema. For protobuf messages they receive field values
+ * converted to plain Java objects. Undefined properties are not reported.
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * var validator = CompiledValidator.forMessage(
+ *         new ObjectSchema().withRequiredProperty("dummy", new DummySchema()),
+ *         DummyObjectRequest.getDescriptor()
+ * );
+ *
+ * var err = validator.validateAndReturnException("123", request);
+ * if (err != null)
+ *     throw err;
+ * }
+ * </pre>
+ */
+public final class CompiledValidator {
+
+    @FunctionalInterface
+    private interface Check {
+        void validate(String path, Object value, List<ValidationResult> results);
+    }
+
+    private static final Check NONE = (path, value, results) -> {
+    };
+
+    private final Check _check;
+
+    private CompiledValidator(Check check) {
+        _check = check;
+    }
+
+    /**
+     * Compiles a schema to validate protobuf messages of the given type.
+     *
+     * @param schema a validation schema.
+     * @param type   a descriptor of validated messages.
+     * @return the compiled validator.
+     * @throws IllegalArgumentException when the schema does not match the message definition.
+     */
+    public static CompiledValidator forMessage(Schema schema, Descriptors.Descriptor type) {
+        return new CompiledValidator(compileMessage(schema, type));
+    }
+
+    /**
+     * Compiles a schema to validate maps, like command {@link org.pipservices3.commons.run.Parameters}.
+     * Other values are validated by the schema itself.
+     *
+     * @param schema a validation schema.
+     * @return the compiled validator.
+     */
+    public static CompiledValidator forMap(Schema schema) {
+        return new CompiledValidator(compileMap(schema));
+    }
+
+    /**
+     * Validates a value.
+     *
+     * @param value a value to be validated.
+     * @return a list of validation results.
+     */
+    public List<ValidationResult> validate(Object value) {
+        var results = new ArrayList<ValidationResult>();
+        _check.validate("", value, results);
+        return results;
+    }
+
+    /**
+     * Validates a value and returns an exception when it has errors. Warnings are ignored.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param value         a value to be validated.
+     * @return a validation exception or null if the value is valid.
+     */
+    public ValidationException validateAndReturnException(String correlationId, Object value) {
+        var results = validate(value);
+        for (var result : results) {
+            if (result.getType() == ValidationResultType.Error)
+                return new ValidationException(correlationId, results);
+        }
+        return null;
+    }
+
+    private static String getPath(String path, String name) {
+        return path == null || path.isEmpty() ? name : path + "." + name;
+    }
+
+    private static ValidationResult createNullResult(String path) {
+        // Messages name the value by its path as in generic schemas
+        var name = path == null || path.isEmpty() ? "value" : path;
+        return new ValidationResult(path, ValidationResultType.Error, "VALUE_IS_NULL",
+                name + " must not be null", "NOT NULL", null);
+    }
+
+    private static Check sequence(List<Check> checks) {
+        if (checks.isEmpty())
+            return NONE;
+        if (checks.size() == 1)
+            return checks.get(0);
+
+        var array = checks.toArray(new Check[0]);
+        return (path, value, results) -> {
+            for (var check : array)
+                check.validate(path, value, results);
+        };
+    }
+
+    private static Check compileRules(Schema schema, Function<Object, Object> convert) {
+        var rules = schema.getRules();
+        if (rules == null || rules.isEmpty())
+            return NONE;
+
+        var array = rules.toArray(new IValidationRule[0]);
+        return (path, value, results) -> {
+            var plain = convert.apply(value);
+            for (var rule : array)
+                rule.validate(path, schema, plain, results);
+        };
+    }
+
+    private static Check compileGeneric(Schema schema, Function<Object, Object> convert) {
+        // Paths of results returned by the schema are relative to the validated value
+        return (path, value, results) -> {
+            for (var result : schema.validate(convert.apply(value))) {
+                results.add(new ValidationResult(
+                        result.getPath() == null || result.getPath().isEmpty() ? path : getPath(path, result.getPath()),
+                        result.getType(), result.getCode(), result.getMessage(), result.getExpected(), result.getActual()
+                ));
+            }
+        };
+    }
+
+    // Maps
+
+    private static Check compileMap(Schema schema) {
+        var required = schema.isRequired();
+        var checks = new ArrayList<Check>();
+        checks.add(compileRules(schema, Function.identity()));
+
+        if (schema instanceof ObjectSchema) {
+            var properties = compileMapProperties((ObjectSchema) schema);
+            var generic = compileGeneric(schema, Function.identity());
+            checks.add((path, value, results) -> {
+                if (value instanceof Map)
+                    properties.validate(path, value, results);
+                else
+                    generic.validate(path, value, results);
+            });
+        } else if (schema instanceof ArraySchema) {
+            var items = compileMapType(((ArraySchema) schema).getValueType());
+            checks.add((path, value, results) -> {
+                if (value instanceof List) {
+                    var list = (List<?>) value;
+                    for (var index = 0; index < list.size(); index++)
+                        items.validate(getPath(path, Integer.toString(index)), list.get(index), results);
+                } else if (value.getClass().isArray()) {
+                    for (var index = 0; index < Array.getLength(value); index++)
+                        items.validate(getPath(path, Integer.toString(index)), Array.get(value, index), results);
+                }
+            });
+        } else if (!(schema instanceof PropertySchema) && schema.getClass() != Schema.class) {
+            // Unknown schema types validate themselves
+            checks.add(compileGeneric(schema, Function.identity()));
+        }
+
+        var check = sequence(checks);
+        return (path, value, results) -> {
+            if (value == null) {
+                if (required)
+                    results.add(createNullResult(path));
+                return;
+            }
+            check.validate(path, value, results);
+        };
+    }
+
+    private static Check compileMapProperties(ObjectSchema schema) {
+        var checks = new ArrayList<Check>();
+        var properties = schema.getProperties();
+        if (properties == null)
+            return NONE;
+
+        for (var property : properties) {
+            var name = property.getName();
+            var check = sequence(List.of(compileMap(property), compileMapType(property.getType())));
+            checks.add((path, value, results) -> {
+                var map = (Map<String, Object>) value;
+                var propertyValue = map.get(name);
+                if (propertyValue == null) {
+                    // Property names are matched ignoring case
+                    for (var entry : map.entrySet()) {
+                        if (name.equalsIgnoreCase(entry.getKey())) {
+                            propertyValue = entry.getValue();
+                            break;
+                        }
+                    }
+                }
+                check.validate(getPath(path, name), propertyValue, results);
+            });
+        }
+        return sequence(checks);
+    }
+
+    private static Check compileMapType(Object type) {
+        if (type == null)
+            return NONE;
+
+        if (type instanceof Schema) {
+            var check = compileMap((Schema) type);
+            return (path, value, results) -> {
+                if (value != null)
+                    check.validate(path, value, results);
+            };
+        }
+
+        return (path, value, results) -> {
+            if (value == null || TypeMatcher.matchValueType(type, value))
+                return;
+
+            var valueType = TypeConverter.toTypeCode(value);
+            results.add(new ValidationResult(path, ValidationResultType.Error, "TYPE_MISMATCH",
+                    "Expected type " + type + " but found " + valueType, type, valueType));
+        };
+    }
+
+    // Protobuf messages
+
+    private static Check compileMessage(Schema schema, Descriptors.Descriptor type) {
+        var checks = new ArrayList<Check>();
+        checks.add(compileRules(schema, CompiledValidator::toPlain));
+
+        if (schema instanceof ObjectSchema) {
+            var properties = ((ObjectSchema) schema).getProperties();
+            if (properties != null) {
+                for (var property : properties)
+                    checks.add(compileField(property, findField(type, property.getName())));
+            }
+        } else if (schema.getClass() != Schema.class && !(schema instanceof PropertySchema)) {
+            checks.add(compileGeneric(schema, CompiledValidator::toPlain));
+        }
+
+        var required = schema.isRequired();
+        var check = sequence(checks);
+        return (path, value, results) -> {
+            if (value == null) {
+                if (required)
+                    results.add(createNullResult(path));
+                return;
+            }
+            check.validate(path, value, results);
+        };
+    }
+
+    private static Descriptors.FieldDescriptor findField(Descriptors.Descriptor type, String name) {
+        var field = type.findFieldByName(name);
+        if (field != null)
+            return field;
+
+        // Schemas may use camel case names of snake case fields
+        for (var candidate : type.getFields()) {
+            if (candidate.getName().replace("_", "").equalsIgnoreCase(name.replace("_", ""))
+                    || candidate.getJsonName().equals(name))
+                return candidate;
+        }
+
+        throw new IllegalArgumentException("Property " + name + " is not defined in message " + type.getFullName());
+    }
+
+    private static Predicate<Message> compilePresence(Descriptors.FieldDescriptor field) {
+        if (field.isRepeated())
+            return message -> message.getRepeatedFieldCount(field) > 0;
+
+        if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE
+                || field.getContainingOneof() != null
+                || field.getFile().getSyntax() == Descriptors.FileDescriptor.Syntax.PROTO2)
+            return message -> message.hasField(field);
+
+        // Proto3 fields without presence
+        switch (field.getJavaType()) {
+            case STRING:
+                return message -> !((String) message.getField(field)).isEmpty();
+            case BYTE_STRING:
+                return message -> !((ByteString) message.getField(field)).isEmpty();
+            default:
+                return message -> true;
+        }
+    }
+
+    private static Check compileField(PropertySchema property, Descriptors.FieldDescriptor field) {
+        var name = property.getName();
+        var required = property.isRequired();
+        var present = compilePresence(field);
+        var rules = compileRules(property, CompiledValidator::toPlain);
+        var type = compileFieldType(property.getType(), field);
+
+        return (path, value, results) -> {
+            var message = (Message) value;
+            if (!present.test(message)) {
+                if (required)
+                    results.add(createNullResult(getPath(path, name)));
+                return;
+            }
+
+            if (rules == NONE && type == NONE)
+                return;
+
+            var fieldPath = getPath(path, name);
+            var fieldValue = message.getField(field);
+            rules.validate(fieldPath, fieldValue, results);
+            type.validate(fieldPath, fieldValue, results);
+        };
+    }
+
+    private static Check compileFieldType(Object type, Descriptors.FieldDescriptor field) {
+        if (type == null)
+            return NONE;
+
+        if (type instanceof TypeCode) {
+            // Protobuf enforces field types, so they are checked only once
+            if (!isCompatible((TypeCode) type, field))
+                throw new IllegalArgumentException("Field " + field.getFullName() + " of type " + field.getType()
+                        + (field.isRepeated() ? "[]" : "") + " does not match type " + type);
+            return NONE;
+        }
+
+        if (!(type instanceof Schema))
+            return NONE;
+
+        var isMessage = field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE;
+        if (type instanceof ObjectSchema && isMessage && !field.isRepeated())
+            return compileMessage((Schema) type, field.getMessageType());
+
+        if (type instanceof ArraySchema && field.isRepeated() && !field.isMapField()) {
+            var arraySchema = (ArraySchema) type;
+            var valueType = arraySchema.getValueType();
+
+            Check items;
+            if (valueType instanceof ObjectSchema && isMessage) {
+                items = compileMessage((Schema) valueType, field.getMessageType());
+            } else if (valueType instanceof TypeCode) {
+                if (!isCompatible((TypeCode) valueType, field, false))
+                    throw new IllegalArgumentException("Items of field " + field.getFullName() + " of type "
+                            + field.getType() + " do not match type " + valueType);
+                items = NONE;
+            } else if (valueType instanceof Schema) {
+                items = compileGeneric((Schema) valueType, CompiledValidator::toPlain);
+            } else {
+                items = NONE;
+            }
+
+            var rules = compileRules(arraySchema, CompiledValidator::toPlain);
+            if (items == NONE)
+                return rules;
+
+            return (path, value, results) -> {
+                rules.validate(path, value, results);
+                var list = (List<?>) value;
+                for (var index = 0; index < list.size(); index++)
+                    items.validate(getPath(path, Integer.toString(index)), list.get(index), results);
+            };
+        }
+
+        // Other schemas validate plain values
+        return compileGeneric((Schema) type, CompiledValidator::toPlain);
+    }
+
+    private static boolean isCompatible(TypeCode type, Descriptors.FieldDescriptor field) {
+        if (field.isMapField())
+            return type == TypeCode.Map || type == TypeCode.Object || type == TypeCode.Unknown;
+        if (field.isRepeated())
+            return type == TypeCode.Array || type == TypeCode.Object || type == TypeCode.Unknown;
+        return isCompatible(type, field, false);
+    }
+
+    private static boolean isCompatible(TypeCode type, Descriptors.FieldDescriptor field, boolean repeated) {
+        var javaType = field.getJavaType();
+        switch (type) {
+            case String:
+                return javaType == Descriptors.FieldDescriptor.JavaType.STRING
+                        || javaType == Descriptors.FieldDescriptor.JavaType.ENUM;
+            case Boolean:
+                return javaType == Descriptors.FieldDescriptor.JavaType.BOOLEAN;
+            case Integer:
+            case Long:
+                return javaType == Descriptors.FieldDescriptor.JavaType.INT
+                        || javaType == Descriptors.FieldDescriptor.JavaType.LONG;
+            case Float:
+            case Double:
+                return javaType == Descriptors.FieldDescriptor.JavaType.FLOAT
+                        || javaType == Descriptors.FieldDescriptor.JavaType.DOUBLE
+                        || javaType == Descriptors.FieldDescriptor.JavaType.INT
+                        || javaType == Descriptors.FieldDescriptor.JavaType.LONG;
+            case Enum:
+                return javaType == Descriptors.FieldDescriptor.JavaType.ENUM
+                        || javaType == Descriptors.FieldDescriptor.JavaType.STRING
+                        || javaType == Descriptors.FieldDescriptor.JavaType.INT;
+            case DateTime:
+            case Duration:
+                return javaType == Descriptors.FieldDescriptor.JavaType.STRING
+                        || javaType == Descriptors.FieldDescriptor.JavaType.LONG
+                        || javaType == Descriptors.FieldDescriptor.JavaType.MESSAGE;
+            case Map:
+                return javaType == Descriptors.FieldDescriptor.JavaType.MESSAGE;
+            case Array:
+                return repeated;
+            default:
+                return true;
+        }
+    }
+
+    private static Object toPlain(Object value) {
+        if (value instanceof Message) {
+            var map = new LinkedHashMap<String, Object>();
+            for (var entry : ((Message) value).getAllFields().entrySet())
+                map.put(entry.getKey().getName(), toPlain(entry.getValue()));
+            return map;
+        }
+        if (value instanceof List) {
+            var list = new ArrayList<>();
+            for (var item : (List<?>) value)
+                list.add(toPlain(item));
+            return list;
+        }
+        if (value instanceof Descriptors.EnumValueDescriptor)
+            return ((Descriptors.EnumValueDescriptor) value).getName();
+        if (value instanceof ByteString)
+            return ((ByteString) value).toByteArray();
+        return value;
+    }
+}
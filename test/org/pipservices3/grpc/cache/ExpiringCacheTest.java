@@ -0,0 +1,51 @@
+package org.pipservices3.grpc.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ExpiringCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        var store = new ExpiringCache<String, String>(10);
+
+        assertNull(store.get("key1"));
+
+        store.put("key1", "value1", 60000);
+        store.put("key2", "value2", 60000);
+        assertEquals("value1", store.get("key1"));
+        assertEquals("value2", store.get("key2"));
+
+        store.put("key1", "value3", 60000);
+        assertEquals("value3", store.get("key1"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        var store = new ExpiringCache<String, String>(10);
+
+        store.put("key1", "value1", 50);
+        assertEquals("value1", store.get("key1"));
+
+        Thread.sleep(100);
+
+        assertNull(store.get("key1"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testNewEntriesAreAlwaysAdmitted() {
+        var store = new ExpiringCache<String, String>(10);
+
+        // Keys written once evict the oldest ones instead of being rejected
+        for (var index = 0; index < 25; index++)
+            store.put("key" + index, "value" + index, 60000);
+
+        assertEquals(10, store.size());
+        assertNull(store.get("key14"));
+        for (var index = 15; index < 25; index++)
+            assertEquals("value" + index, store.get("key" + index));
+    }
+}
@@ -0,0 +1,95 @@
+package org.pipservices3.grpc.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsAreCoalesced() throws Exception {
+        var flight = new SingleFlight<String, String>();
+        var executions = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var executor = Executors.newFixedThreadPool(10);
+        try {
+            var results = new ArrayList<Future<String>>();
+            results.add(executor.submit(() -> flight.execute("key1", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "value1";
+            })));
+            started.await();
+
+            for (var i = 0; i < 9; i++)
+                results.add(executor.submit(() -> flight.execute("key1", () -> {
+                    executions.incrementAndGet();
+                    return "value2";
+                })));
+
+            // Wait until followers join the running call
+            Thread.sleep(100);
+            release.countDown();
+
+            for (var result : results)
+                assertEquals("value1", result.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+            assertEquals(0, flight.getInFlightCount());
+
+            // Next call starts a new execution
+            assertEquals("value3", flight.execute("key1", () -> "value3"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testErrorsArePropagated() {
+        var flight = new SingleFlight<String, String>();
+
+        try {
+            flight.execute("key1", () -> {
+                throw new IllegalStateException("Test error");
+            });
+            fail("Exception expected");
+        } catch (Exception ex) {
+            assertTrue(ex instanceof IllegalStateException);
+        }
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    public void testAsyncCallsAreCoalesced() throws Exception {
+        var flight = new SingleFlight<String, String>();
+        var executions = new AtomicInteger();
+        var pending = new CompletableFuture<String>();
+
+        var result1 = flight.executeAsync("key1", () -> {
+            executions.incrementAndGet();
+            return pending;
+        });
+        var result2 = flight.executeAsync("key1", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture("value2");
+        });
+
+        assertFalse(result1.isDone());
+        pending.complete("value1");
+
+        assertEquals("value1", result1.get());
+        assertEquals("value1", result2.get());
+        assertEquals(1, executions.get());
+        assertEquals(0, flight.getInFlightCount());
+    }
+}
@@ -0,0 +1,78 @@
+package org.pipservices3.grpc.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        var cache = new TinyLfuCache<String, String>(10);
+
+        assertNull(cache.get("key1"));
+
+        cache.put("key1", "value1", 60000);
+        cache.put("key2", "value2", 60000);
+        assertEquals("value1", cache.get("key1"));
+        assertEquals("value2", cache.get("key2"));
+
+        cache.put("key1", "value3", 60000);
+        assertEquals("value3", cache.get("key1"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        var cache = new TinyLfuCache<String, String>(10);
+
+        cache.put("key1", "value1", 50);
+        assertEquals("value1", cache.get("key1"));
+
+        Thread.sleep(100);
+
+        assertNull(cache.get("key1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidation() {
+        var cache = new TinyLfuCache<String, String>(10);
+
+        cache.put("a.1", "value1", 60000);
+        cache.put("a.2", "value2", 60000);
+        cache.put("b.1", "value3", 60000);
+
+        cache.invalidate("b.1");
+        assertNull(cache.get("b.1"));
+
+        assertEquals(2, cache.invalidateIf(key -> key.startsWith("a.")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testFrequentEntriesSurviveScan() {
+        var cache = new TinyLfuCache<Integer, Integer>(100);
+
+        // Make a working set of frequently used entries
+        for (var round = 0; round < 5; round++) {
+            for (var key = 0; key < 50; key++) {
+                if (cache.get(key) == null)
+                    cache.put(key, key, 60000);
+            }
+        }
+
+        // Scan of entries used once
+        for (var key = 1000; key < 2000; key++)
+            cache.put(key, key, 60000);
+
+        assertTrue(cache.size() <= cache.getMaxSize());
+
+        var hits = 0;
+        for (var key = 0; key < 50; key++) {
+            if (cache.get(key) != null)
+                hits++;
+        }
+        assertTrue("Only " + hits + " frequent entries survived", hits >= 45);
+    }
+}
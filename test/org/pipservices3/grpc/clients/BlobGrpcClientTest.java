@@ -0,0 +1,215 @@
+package org.pipservices3.grpc.clients;
+
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.*;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.errors.InvalidStateException;
+import org.pipservices3.commons.refer.References;
+import org.pipservices3.grpc.blobs.BlobChunk;
+import org.pipservices3.grpc.blobs.BlobInfo;
+import org.pipservices3.grpc.services.BlobGrpcService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.CRC32C;
+
+import static org.junit.Assert.*;
+
+public class BlobGrpcClientTest {
+    private static final ConfigParams grpcConfig = ConfigParams.fromTuples(
+            "connection.protocol", "http",
+            "connection.host", "localhost",
+            "connection.port", 3004,
+            "options.chunk_size", 256 * 1024
+    );
+
+    static Path tempDir;
+    static BlobGrpcService service;
+    BlobGrpcClient client;
+
+    @BeforeClass
+    public static void setupClass() throws ApplicationException, IOException {
+        tempDir = Files.createTempDirectory("blobs");
+
+        service = new BlobGrpcService();
+        service.configure(grpcConfig.override(ConfigParams.fromTuples(
+                "options.path", tempDir.resolve("storage").toString(),
+                "options.file_max_size", 1024L * 1024 * 1024 * 16
+        )));
+        service.setReferences(new References());
+        service.open(null);
+    }
+
+    @AfterClass
+    public static void teardownClass() throws InvalidStateException, IOException {
+        service.close(null);
+
+        try (var files = Files.walk(tempDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Before
+    public void setup() throws ApplicationException {
+        client = new BlobGrpcClient();
+        client.configure(grpcConfig);
+        client.setReferences(new References());
+        client.open(null);
+    }
+
+    @After
+    public void teardown() throws ApplicationException {
+        client.close(null);
+    }
+
+    private static Path createFile(String name, long size) throws IOException {
+        var file = tempDir.resolve(name);
+        var random = new Random(size);
+        var buffer = new byte[64 * 1024];
+
+        try (OutputStream output = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += buffer.length) {
+                random.nextBytes(buffer);
+                output.write(buffer, 0, (int) Math.min(buffer.length, size - written));
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void testUploadAndDownload() throws Exception {
+        var source = createFile("source.bin", 3 * 1024 * 1024 + 123);
+
+        var info = client.upload(null, "blob1", source);
+        assertTrue(info.getCompleted());
+        assertEquals(Files.size(source), info.getSize());
+
+        var target = tempDir.resolve("target.bin");
+        client.download(null, "blob1", target);
+        assertEquals(-1, Files.mismatch(source, target));
+    }
+
+    @Test
+    public void testResumeTransfers() throws Exception {
+        var source = createFile("resume.bin", 2 * 1024 * 1024 + 7);
+        var content = Files.readAllBytes(source);
+
+        // Simulate interrupted upload
+        var storage = tempDir.resolve("storage");
+        Files.createDirectories(storage);
+        Files.write(storage.resolve("blob2.part"), Arrays.copyOf(content, 1024 * 1024));
+
+        var info = client.getBlobInfo(null, "blob2");
+        assertFalse(info.getCompleted());
+        assertEquals(1024 * 1024, info.getSize());
+
+        info = client.upload(null, "blob2", source);
+        assertTrue(info.getCompleted());
+        assertEquals(content.length, info.getSize());
+
+        // Simulate interrupted download
+        var target = tempDir.resolve("resume-target.bin");
+        Files.write(target, Arrays.copyOf(content, 500 * 1000));
+
+        client.download(null, "blob2", target);
+        assertEquals(-1, Files.mismatch(source, target));
+    }
+
+    private static StreamObserver<BlobInfo> resultOf(CompletableFuture<BlobInfo> result) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(BlobInfo value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+    }
+
+    @Test
+    public void testConcurrentUploadsAreRejected() throws Exception {
+        var data = ByteString.copyFromUtf8("first part");
+        var crc = new CRC32C();
+        crc.update(data.asReadOnlyByteBuffer());
+        var chunk = BlobChunk.newBuilder()
+                .setBlobId("blob3")
+                .setOffset(0)
+                .setData(data)
+                .setChecksum((int) crc.getValue())
+                .build();
+
+        var first = new CompletableFuture<BlobInfo>();
+        var firstUpload = client.<BlobChunk, BlobInfo>callClientStream("upload", null, resultOf(first));
+        firstUpload.onNext(chunk);
+
+        // Wait until the first upload holds the blob
+        var part = tempDir.resolve("storage").resolve("blob3.part");
+        for (var retry = 0; retry < 100 && (!Files.exists(part) || Files.size(part) < data.size()); retry++)
+            Thread.sleep(20);
+
+        var second = new CompletableFuture<BlobInfo>();
+        var secondUpload = client.<BlobChunk, BlobInfo>callClientStream("upload", null, resultOf(second));
+        secondUpload.onNext(chunk);
+        secondUpload.onCompleted();
+        try {
+            second.get();
+            fail("Concurrent upload of the same blob must be rejected");
+        } catch (ExecutionException ex) {
+            assertEquals(Status.Code.ABORTED, Status.fromThrowable(ex.getCause()).getCode());
+        }
+
+        // Pausing the first upload releases the blob
+        firstUpload.onCompleted();
+        var info = first.get();
+        assertFalse(info.getCompleted());
+        assertEquals(data.size(), info.getSize());
+
+        var source = tempDir.resolve("concurrent.txt");
+        Files.writeString(source, "first part and the rest");
+        info = client.upload(null, "blob3", source);
+        assertTrue(info.getCompleted());
+        assertEquals(Files.size(source), info.getSize());
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        // Run with -Dbenchmarks=true, set -Dblob.benchmark.size=4294967296 to benchmark multi-GB files
+        Assume.assumeTrue("Benchmarks are disabled", Boolean.getBoolean("benchmarks"));
+
+        long size = Long.getLong("blob.benchmark.size", 64L * 1024 * 1024);
+        var source = createFile("benchmark.bin", size);
+
+        var start = System.nanoTime();
+        client.upload(null, "benchmark", source);
+        var uploadTime = System.nanoTime() - start;
+
+        var target = tempDir.resolve("benchmark-target.bin");
+        start = System.nanoTime();
+        client.download(null, "benchmark", target);
+        var downloadTime = System.nanoTime() - start;
+
+        assertEquals(size, Files.size(target));
+
+        System.out.printf("Blob transfer of %d MB: upload %.1f MB/s, download %.1f MB/s%n",
+                size / (1024 * 1024),
+                size / 1048576.0 / (uploadTime / 1e9),
+                size / 1048576.0 / (downloadTime / 1e9));
+    }
+}
@@ -4,8 +4,11 @@ import org.pipservices3.commons.data.DataPage;
 import org.pipservices3.commons.data.FilterParams;
 import org.pipservices3.commons.data.PagingParams;
 import org.pipservices3.grpc.Dummy;
+import org.pipservices3.grpc.commandable.EventMessage;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class DummyCommandableGrpcClient extends CommandableGrpcClient implements IDummyClient {
 
@@ -63,4 +66,16 @@ public class DummyCommandableGrpcClient extends CommandableGrpcClient implements
                 )
         );
     }
+
+    public CommandBulkResult createDummies(String correlationId, List<Dummy> dummies) {
+        return this.bulkCommand(
+                "create_dummy",
+                correlationId,
+                dummies.iterator()
+        );
+    }
+
+    public Stream<EventMessage> subscribeDummies(String correlationId) {
+        return this.subscribe(correlationId, "dummies");
+    }
 }
@@ -5,19 +5,31 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.convert.JsonConverter;
 import org.pipservices3.commons.errors.ApplicationException;
 import org.pipservices3.commons.errors.InvalidStateException;
 import org.pipservices3.commons.refer.Descriptor;
 import org.pipservices3.commons.refer.References;
+import org.pipservices3.grpc.Dummy;
 import org.pipservices3.grpc.DummyController;
 import org.pipservices3.grpc.services.DummyCommandableGrpcService;
 import org.pipservices3.grpc.services.DummyGrpcService;
 
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
 public class DummyCommandableGrpcClientTest {
     private static final ConfigParams grpcConfig = ConfigParams.fromTuples(
             "connection.protocol", "http",
             "connection.host", "localhost",
-            "connection.port", 3002
+            "connection.port", 3002,
+            "options.conditional_invoke", true,
+            "options.result_versions", true,
+            "compression.codec", "zstd",
+            "compression.min_size", 100
     );
 
     static DummyCommandableGrpcService service;
@@ -59,4 +71,77 @@ public class DummyCommandableGrpcClientTest {
     public void testCrudOperations() {
         fixture.testCrudOperations();
     }
+
+    @Test
+    public void testBulkCommand() {
+        var dummies = new ArrayList<Dummy>();
+        for (int i = 0; i < 1000; i++)
+            dummies.add(new Dummy(null, "Bulk " + i, "Content " + i));
+
+        // Invalid dummy without a key
+        dummies.set(10, new Dummy(null, null, "Content 10"));
+
+        var result = client.createDummies(null, dummies);
+        assertEquals(1000, result.getTotal());
+        assertEquals(999, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getErrors().containsKey(10));
+    }
+
+    @Test
+    public void testSubscribe() throws Exception {
+        var publisher = Executors.newSingleThreadScheduledExecutor();
+        // Publish until the subscription is registered on the service
+        publisher.scheduleAtFixedRate(() -> {
+            service.publish(null, "others", "1", null);
+            service.publish(null, "dummies", "1", new Dummy("1", "Key 1", "Content 1"));
+        }, 0, 50, TimeUnit.MILLISECONDS);
+
+        try (var events = client.subscribeDummies(null)) {
+            var event = events.findFirst().orElseThrow();
+
+            assertEquals("dummies", event.getTopic());
+            assertEquals("1", event.getKey());
+            assertEquals("Key 1", JsonConverter.fromJson(Dummy.class, event.getDataJson()).getKey());
+        } finally {
+            publisher.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        var cachedClient = new DummyCommandableGrpcClient();
+        cachedClient.configure(grpcConfig.override(ConfigParams.fromTuples(
+                "cache.commands.get_dummy_by_id", 100,
+                "cache.stale_timeout", 10000
+        )));
+        cachedClient.setReferences(new References());
+        cachedClient.open(null);
+
+        try {
+            var dummy = client.createDummy(null, new Dummy(null, "Cached", "Content 1"));
+            assertEquals("Content 1", cachedClient.getDummyById(null, dummy.getId()).getContent());
+
+            dummy.setContent("Content 2");
+            client.updateDummy(null, dummy);
+
+            // Fresh cached result
+            assertEquals("Content 1", cachedClient.getDummyById(null, dummy.getId()).getContent());
+
+            // Stale result is returned while it is refreshed in background
+            Thread.sleep(150);
+            assertEquals("Content 1", cachedClient.getDummyById(null, dummy.getId()).getContent());
+
+            var content = "";
+            for (var attempt = 0; attempt < 20 && !content.equals("Content 2"); attempt++) {
+                Thread.sleep(50);
+                content = cachedClient.getDummyById(null, dummy.getId()).getContent();
+            }
+            assertEquals("Content 2", content);
+
+            client.deleteDummy(null, dummy.getId());
+        } finally {
+            cachedClient.close(null);
+        }
+    }
 }
@@ -8,6 +8,7 @@ import org.pipservices3.grpc.dummies.DummiesGrpc;
 
 import java.util.ArrayList;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 public class DummyGrpcClient extends GrpcClient implements IDummyClient {
 
@@ -47,6 +48,23 @@ public class DummyGrpcClient extends GrpcClient implements IDummyClient {
         return new DataPage<>(data, result.getTotal());
     }
 
+    public Stream<Dummy> streamDummies(String correlationId, FilterParams filter) {
+        var request = org.pipservices3.grpc.dummies.DummiesPageRequest.newBuilder();
+
+        filter = filter != null ? filter : new FilterParams();
+        for (var propName : filter.keySet())
+            request.putFilter(propName, filter.get(propName));
+
+        this.instrument(correlationId, "dummy.stream_page_by_filter");
+
+        return this.<org.pipservices3.grpc.dummies.DummiesPageRequest, org.pipservices3.grpc.dummies.DummiesPage, org.pipservices3.grpc.dummies.Dummy>callChunkedStream(
+                "get_dummies_chunked",
+                correlationId,
+                request.build(),
+                org.pipservices3.grpc.dummies.DummiesPage::getDataList
+        ).map(item -> new Dummy(item.getId(), item.getKey(), item.getContent()));
+    }
+
     @Override
     public Dummy getDummyById(String correlationId, String dummyId) {
         var request = org.pipservices3.grpc.dummies.DummyIdRequest.newBuilder();
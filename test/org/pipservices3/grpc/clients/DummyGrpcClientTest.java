@@ -1,23 +1,34 @@
 package org.pipservices3.grpc.clients;
 
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.data.FilterParams;
+import org.pipservices3.commons.data.PagingParams;
 import org.pipservices3.commons.errors.ApplicationException;
 import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.errors.ConnectionException;
 import org.pipservices3.commons.errors.InvalidStateException;
 import org.pipservices3.commons.refer.Descriptor;
 import org.pipservices3.commons.refer.ReferenceException;
 import org.pipservices3.commons.refer.References;
+import org.pipservices3.grpc.Dummy;
 import org.pipservices3.grpc.DummyController;
 import org.pipservices3.grpc.services.DummyCommandableGrpcService;
 import org.pipservices3.grpc.services.DummyGrpcService;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
 public class DummyGrpcClientTest {
     private static final ConfigParams grpcConfig = ConfigParams.fromTuples(
-            "connection.protocol", "http",
+            "connection.protocol", "inproc",
             "connection.host", "localhost",
             "connection.port", 3000
     );
@@ -61,4 +72,97 @@ public class DummyGrpcClientTest {
     public void testCrudOperations() {
         fixture.testCrudOperations();
     }
+
+    @Test
+    public void testChunkedStream() {
+        for (int index = 0; index < 5; index++)
+            client.createDummy(null, new Dummy(null, "Stream", "Content " + index));
+
+        try (var dummies = client.streamDummies(null, FilterParams.fromTuples("key", "Stream"))) {
+            var contents = dummies.map(Dummy::getContent).toList();
+            assertEquals(5, contents.size());
+            assertEquals("Content 0", contents.get(0));
+            assertEquals("Content 4", contents.get(4));
+        }
+
+        // Stop reading in the middle of the stream
+        try (var dummies = client.streamDummies(null, FilterParams.fromTuples("key", "Stream"))) {
+            assertEquals(1, dummies.limit(1).count());
+        }
+    }
+
+    @Test
+    public void testEagerConnect() throws ApplicationException {
+        var eagerClient = new DummyGrpcClient();
+        eagerClient.configure(ConfigParams.fromTuples(
+                "connection.protocol", "inproc",
+                "connection.port", 3000,
+                "options.eager_connect", true
+        ));
+        eagerClient.setReferences(new References());
+        eagerClient.open(null);
+        eagerClient.close(null);
+
+        // Nothing listens there
+        var failingClient = new DummyGrpcClient();
+        failingClient.configure(ConfigParams.fromTuples(
+                "connection.protocol", "inproc",
+                "connection.port", 3099,
+                "options.eager_connect", true,
+                "options.connect_timeout", 500
+        ));
+        failingClient.setReferences(new References());
+        try {
+            failingClient.open(null);
+            fail("Exception expected");
+        } catch (ConnectionException ex) {
+            assertEquals("CANNOT_CONNECT", ex.getCode());
+            assertFalse(failingClient.isOpen());
+        }
+    }
+
+    @Test
+    public void testWaitForReady() throws Exception {
+        var config = ConfigParams.fromTuples(
+                "connection.protocol", "inproc",
+                "connection.port", 3098
+        );
+
+        var waitingClient = new DummyGrpcClient();
+        waitingClient.configure(config.override(ConfigParams.fromTuples(
+                "options.wait_for_ready_methods", "create_dummy"
+        )));
+        waitingClient.setReferences(new References());
+        waitingClient.open(null);
+
+        var lateService = new DummyGrpcService();
+        try {
+            // Fail-fast calls are rejected while the service is not available
+            try {
+                waitingClient.getDummies(null, new FilterParams(), new PagingParams(0, 5, false));
+                fail("Exception expected");
+            } catch (StatusRuntimeException ex) {
+                assertEquals(Status.Code.UNAVAILABLE, ex.getStatus().getCode());
+            }
+
+            var result = CompletableFuture.supplyAsync(
+                    () -> waitingClient.createDummy(null, new Dummy(null, "Key 1", "Content 1")));
+
+            Thread.sleep(200);
+            assertFalse(result.isDone());
+
+            // The waiting call is sent as soon as the service starts
+            lateService.configure(config);
+            lateService.setReferences(References.fromTuples(
+                    new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), new DummyController(),
+                    new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), lateService
+            ));
+            lateService.open(null);
+
+            assertEquals("Key 1", result.get(10, TimeUnit.SECONDS).getKey());
+        } finally {
+            waitingClient.close(null);
+            lateService.close(null);
+        }
+    }
 }
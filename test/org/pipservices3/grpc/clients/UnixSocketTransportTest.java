@@ -0,0 +1,202 @@
+package org.pipservices3.grpc.clients;
+
+import io.netty.channel.epoll.Epoll;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.References;
+import org.pipservices3.grpc.Dummy;
+import org.pipservices3.grpc.DummyController;
+import org.pipservices3.grpc.services.DummyGrpcService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UnixSocketTransportTest {
+    private static final ConfigParams tcpConfig = ConfigParams.fromTuples(
+            "connection.protocol", "http",
+            "connection.host", "localhost",
+            "connection.port", 3005
+    );
+    private static final ConfigParams inProcessConfig = ConfigParams.fromTuples(
+            "connection.protocol", "inproc",
+            "connection.port", 3005
+    );
+
+    static Path tempDir;
+    static ConfigParams unixConfig;
+    static List<DummyGrpcService> services = new ArrayList<>();
+
+    @BeforeClass
+    public static void setupClass() throws ApplicationException, IOException {
+        Assume.assumeTrue("Native epoll transport is not available", Epoll.isAvailable());
+
+        tempDir = Files.createTempDirectory("grpc");
+        unixConfig = ConfigParams.fromTuples(
+                "connection.protocol", "unix",
+                "connection.path", tempDir.resolve("dummies.sock").toString()
+        );
+
+        var ctrl = new DummyController();
+        for (var config : List.of(unixConfig, tcpConfig, inProcessConfig)) {
+            var service = new DummyGrpcService();
+            service.configure(config);
+            service.setReferences(References.fromTuples(
+                    new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), ctrl,
+                    new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), service
+            ));
+            service.open(null);
+            services.add(service);
+        }
+    }
+
+    @AfterClass
+    public static void teardownClass() throws ApplicationException, IOException {
+        for (var service : services)
+            service.close(null);
+
+        if (tempDir != null) {
+            Files.deleteIfExists(tempDir.resolve("dummies.sock"));
+            Files.deleteIfExists(tempDir);
+        }
+    }
+
+    private static DummyGrpcClient openClient(ConfigParams config) throws ApplicationException {
+        var client = new DummyGrpcClient();
+        client.configure(config);
+        client.setReferences(new References());
+        client.open(null);
+        return client;
+    }
+
+    @Test
+    public void testCrudOperations() throws ApplicationException {
+        var client = openClient(unixConfig);
+        try {
+            new DummyClientFixture(client).testCrudOperations();
+        } finally {
+            client.close(null);
+        }
+    }
+
+    @Test
+    public void testSocketPathIsProtected() throws ApplicationException, IOException {
+        // Socket of a live server is not taken over
+        var second = new DummyGrpcService();
+        second.configure(unixConfig);
+        second.setReferences(References.fromTuples(
+                new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), new DummyController(),
+                new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), second
+        ));
+        try {
+            second.open(null);
+            fail("Exception expected");
+        } catch (ApplicationException ex) {
+            // Expected exception
+        } finally {
+            second.close(null);
+        }
+
+        var client = openClient(unixConfig);
+        try {
+            assertNotNull(client.createDummy(null, new Dummy(null, "Key", "Content")));
+        } finally {
+            client.close(null);
+        }
+
+        // Files other than sockets are never removed
+        var file = Files.writeString(tempDir.resolve("config.txt"), "content");
+        var service = new DummyGrpcService();
+        service.configure(ConfigParams.fromTuples(
+                "connection.protocol", "unix",
+                "connection.path", file.toString()
+        ));
+        service.setReferences(References.fromTuples(
+                new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), new DummyController(),
+                new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), service
+        ));
+        try {
+            service.open(null);
+            fail("Exception expected");
+        } catch (ApplicationException ex) {
+            // Expected exception
+        } finally {
+            service.close(null);
+        }
+
+        assertEquals("content", Files.readString(file));
+        Files.delete(file);
+    }
+
+    @Test
+    public void testAllTransportsServeCalls() throws ApplicationException {
+        var dummy = createDummy();
+
+        for (var config : List.of(tcpConfig, unixConfig, inProcessConfig)) {
+            var client = openClient(config);
+            try {
+                assertEquals(dummy.getId(), client.getDummyById(null, dummy.getId()).getId());
+            } finally {
+                client.close(null);
+            }
+        }
+
+        deleteDummy(dummy);
+    }
+
+    @Test
+    public void testLatencyBenchmark() throws ApplicationException {
+        Assume.assumeTrue("Benchmarks are disabled", Boolean.getBoolean("benchmarks"));
+
+        var iterations = 5000;
+        var dummy = createDummy();
+
+        for (var config : List.of(tcpConfig, unixConfig, inProcessConfig)) {
+            var client = openClient(config);
+            try {
+                // Warm up connection and JIT
+                for (var i = 0; i < 1000; i++)
+                    client.getDummyById(null, dummy.getId());
+
+                var start = System.nanoTime();
+                for (var i = 0; i < iterations; i++)
+                    assertEquals(dummy.getId(), client.getDummyById(null, dummy.getId()).getId());
+                var elapsed = System.nanoTime() - start;
+
+                System.out.printf("%s: %d calls, %.1f us per call%n",
+                        config.getAsString("connection.protocol"), iterations, elapsed / 1000.0 / iterations);
+            } finally {
+                client.close(null);
+            }
+        }
+
+        deleteDummy(dummy);
+    }
+
+    private static Dummy createDummy() throws ApplicationException {
+        var client = openClient(unixConfig);
+        try {
+            return client.createDummy(null, new Dummy(null, "Benchmark", "Benchmark content"));
+        } finally {
+            client.close(null);
+        }
+    }
+
+    private static void deleteDummy(Dummy dummy) throws ApplicationException {
+        var client = openClient(unixConfig);
+        try {
+            client.deleteDummy(null, dummy.getId());
+        } finally {
+            client.close(null);
+        }
+    }
+}
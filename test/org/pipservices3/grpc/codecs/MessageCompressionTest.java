@@ -0,0 +1,109 @@
+package org.pipservices3.grpc.codecs;
+
+import io.grpc.Codec;
+import org.junit.Assume;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.grpc.commandable.InvokeReply;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MessageCompressionTest {
+
+    private static InvokeReply createReply(int count) {
+        var json = new StringBuilder("{\"data\":[");
+        for (var i = 0; i < count; i++) {
+            if (i > 0) json.append(",");
+            json.append("{\"id\":\"").append(i).append("\",\"key\":\"Key ").append(i)
+                    .append("\",\"content\":\"Content of dummy ").append(i).append("\"}");
+        }
+        json.append("],\"total\":").append(count).append("}");
+        return InvokeReply.newBuilder().setResultEmpty(false).setResultJson(json.toString()).build();
+    }
+
+    @Test
+    public void testCodecSelection() {
+        var compression = new MessageCompression();
+        assertFalse(compression.isEnabled());
+        assertNull(compression.getCodec("invoke"));
+
+        compression.configure(ConfigParams.fromTuples(
+                "compression.codec", "gzip",
+                "compression.min_size", 100,
+                "compression.methods.invoke", "zstd",
+                "compression.methods.ping", "none"
+        ));
+
+        assertTrue(compression.isEnabled());
+        assertEquals("zstd", compression.getCodec("invoke"));
+        assertNull(compression.getCodec("ping"));
+        assertEquals("gzip", compression.getCodec("get_dummies"));
+
+        assertFalse(compression.shouldCompress(createReply(1)));
+        assertTrue(compression.shouldCompress(createReply(10)));
+    }
+
+    @Test
+    public void testCodecRoundTrip() throws IOException {
+        var bytes = createReply(500).toByteArray();
+
+        for (var codec : List.of(new Codec.Gzip(), new ZstdCodec())) {
+            var output = new ByteArrayOutputStream();
+            try (var stream = codec.compress(output)) {
+                stream.write(bytes);
+            }
+            var compressed = output.toByteArray();
+
+            byte[] decompressed;
+            try (var stream = codec.decompress(new ByteArrayInputStream(compressed))) {
+                decompressed = stream.readAllBytes();
+            }
+
+            assertArrayEquals(bytes, decompressed);
+            assertTrue(compressed.length < bytes.length / 2);
+        }
+    }
+
+    @Test
+    public void testCompressionBenchmark() throws IOException {
+        Assume.assumeTrue("Benchmarks are disabled", Boolean.getBoolean("benchmarks"));
+
+        var bytes = createReply(500).toByteArray();
+        var iterations = 200;
+
+        for (var codec : List.of(new Codec.Gzip(), new ZstdCodec())) {
+            byte[] compressed = null;
+
+            var start = System.nanoTime();
+            for (var i = 0; i < iterations; i++) {
+                var output = new ByteArrayOutputStream();
+                try (var stream = codec.compress(output)) {
+                    stream.write(bytes);
+                }
+                compressed = output.toByteArray();
+            }
+            var compressTime = (System.nanoTime() - start) / iterations;
+
+            byte[] decompressed = null;
+            start = System.nanoTime();
+            for (var i = 0; i < iterations; i++) {
+                try (var stream = codec.decompress(new ByteArrayInputStream(compressed))) {
+                    decompressed = stream.readAllBytes();
+                }
+            }
+            var decompressTime = (System.nanoTime() - start) / iterations;
+
+            System.out.printf("%s: %d -> %d bytes (%.1f%% saved), compress %d us, decompress %d us per message%n",
+                    codec.getMessageEncoding(), bytes.length, compressed.length,
+                    100.0 * (bytes.length - compressed.length) / bytes.length,
+                    compressTime / 1000, decompressTime / 1000);
+
+            assertArrayEquals(bytes, decompressed);
+        }
+    }
+}
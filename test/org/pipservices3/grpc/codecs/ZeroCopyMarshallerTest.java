@@ -0,0 +1,250 @@
+package org.pipservices3.grpc.codecs;
+
+import com.google.protobuf.ByteString;
+import io.grpc.Detachable;
+import io.grpc.HasByteBuffer;
+import io.grpc.KnownLength;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ServerCalls;
+import org.junit.Assume;
+import org.junit.Test;
+import org.pipservices3.grpc.blobs.BlobChunk;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ZeroCopyMarshallerTest {
+
+    /**
+     * Stream over a list of direct buffers, like the ones received by the transport.
+     */
+    static class BufferStream extends InputStream implements KnownLength, HasByteBuffer, Detachable {
+        final List<ByteBuffer> buffers;
+        boolean closed = false;
+
+        BufferStream(List<ByteBuffer> buffers) {
+            this.buffers = buffers;
+        }
+
+        static BufferStream of(byte[] bytes, int bufferSize) {
+            var buffers = new ArrayList<ByteBuffer>();
+            for (var offset = 0; offset < bytes.length; offset += bufferSize) {
+                var length = Math.min(bufferSize, bytes.length - offset);
+                var buffer = ByteBuffer.allocateDirect(length);
+                buffer.put(bytes, offset, length).flip();
+                buffers.add(buffer);
+            }
+            return new BufferStream(buffers);
+        }
+
+        private ByteBuffer current() {
+            while (!buffers.isEmpty() && !buffers.get(0).hasRemaining())
+                buffers.remove(0);
+            return buffers.isEmpty() ? null : buffers.get(0);
+        }
+
+        @Override
+        public int read() {
+            var buffer = current();
+            return buffer != null ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            var buffer = current();
+            if (buffer == null)
+                return -1;
+            length = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, length);
+            return length;
+        }
+
+        @Override
+        public long skip(long count) {
+            var skipped = 0L;
+            while (skipped < count && current() != null) {
+                var buffer = current();
+                var length = (int) Math.min(count - skipped, buffer.remaining());
+                buffer.position(buffer.position() + length);
+                skipped += length;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffers.stream().mapToInt(ByteBuffer::remaining).sum();
+        }
+
+        @Override
+        public boolean byteBufferSupported() {
+            return true;
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            var buffer = current();
+            return buffer != null ? buffer.asReadOnlyBuffer() : null;
+        }
+
+        @Override
+        public InputStream detach() {
+            var detached = new BufferStream(new ArrayList<>(buffers));
+            buffers.clear();
+            return detached;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static BlobChunk createChunk(int size) {
+        var data = new byte[size];
+        new Random(size).nextBytes(data);
+        return BlobChunk.newBuilder().setBlobId("1").setOffset(100).setData(ByteString.copyFrom(data)).build();
+    }
+
+    @Test
+    public void testParseFromBuffers() {
+        var chunk = createChunk(100000);
+        var marshaller = new ZeroCopyMarshaller<>(BlobChunk.getDefaultInstance(), 1024, false);
+
+        var stream = BufferStream.of(chunk.toByteArray(), 16 * 1024);
+        assertEquals(chunk, marshaller.parse(stream));
+        assertEquals(0, stream.available());
+        assertEquals(0, marshaller.getRetainedCount());
+
+        // Small messages are parsed by the standard marshaller
+        var small = createChunk(10);
+        assertEquals(small, marshaller.parse(BufferStream.of(small.toByteArray(), 16 * 1024)));
+    }
+
+    @Test
+    public void testAliasedMessagesRetainBuffers() {
+        var chunk = createChunk(100000);
+        var marshaller = new ZeroCopyMarshaller<>(BlobChunk.getDefaultInstance(), 1024, true);
+
+        var stream = BufferStream.of(chunk.toByteArray(), 16 * 1024);
+        var message = marshaller.parse(stream);
+        assertEquals(chunk, message);
+        assertEquals(1, marshaller.getRetainedCount());
+
+        marshaller.release(message);
+        assertEquals(0, marshaller.getRetainedCount());
+
+        // Releasing a message twice is ignored
+        marshaller.release(message);
+    }
+
+    @Test
+    public void testAliasedMessagesShareBuffers() {
+        var chunk = createChunk(100000);
+        var marshaller = new ZeroCopyMarshaller<>(BlobChunk.getDefaultInstance(), 1024, true);
+
+        var stream = BufferStream.of(chunk.toByteArray(), 1024 * 1024);
+        var buffer = stream.buffers.get(0);
+        var message = marshaller.parse(stream);
+        assertEquals(chunk, message);
+
+        // Data is not copied, so changes of the transport buffer are visible in the message
+        buffer.put(50000, (byte) ~buffer.get(50000));
+        assertNotEquals(chunk.getData(), message.getData());
+
+        marshaller.release(message);
+    }
+
+    @Test
+    public void testRequestsOfCancelledCallsAreReleased() {
+        var marshaller = new ZeroCopyMarshaller<>(BlobChunk.getDefaultInstance(), 1024, true);
+        var method = MethodDescriptor.<BlobChunk, BlobChunk>newBuilder()
+                .setType(MethodDescriptor.MethodType.UNARY)
+                .setFullMethodName("test/upload")
+                .setRequestMarshaller(marshaller)
+                .setResponseMarshaller(marshaller)
+                .build();
+
+        var invoked = new boolean[]{false};
+        var handler = marshaller.releaseOnClose(
+                ServerCalls.<BlobChunk, BlobChunk>asyncUnaryCall((request, responseObserver) -> invoked[0] = true));
+
+        var call = new ServerCall<BlobChunk, BlobChunk>() {
+            @Override
+            public void request(int numMessages) {
+            }
+
+            @Override
+            public void sendHeaders(Metadata headers) {
+            }
+
+            @Override
+            public void sendMessage(BlobChunk message) {
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public MethodDescriptor<BlobChunk, BlobChunk> getMethodDescriptor() {
+                return method;
+            }
+        };
+
+        // The call is cancelled after its request was received but before half-close
+        var listener = handler.startCall(call, new Metadata());
+        listener.onMessage(marshaller.parse(BufferStream.of(createChunk(100000).toByteArray(), 16 * 1024)));
+        assertEquals(1, marshaller.getRetainedCount());
+
+        listener.onCancel();
+        assertFalse(invoked[0]);
+        assertEquals(0, marshaller.getRetainedCount());
+    }
+
+    @Test
+    public void testAllocationsAreReduced() {
+        // Allocation counters depend on the JVM, run with -Dbenchmarks=true
+        Assume.assumeTrue("Benchmarks are disabled", Boolean.getBoolean("benchmarks"));
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var bytes = createChunk(4 * 1024 * 1024).toByteArray();
+        var standard = ProtoUtils.marshaller(BlobChunk.getDefaultInstance());
+        var zeroCopy = new ZeroCopyMarshaller<>(BlobChunk.getDefaultInstance(), 1024, true);
+
+        var iterations = 20;
+        var streams = new ArrayList<BufferStream>();
+        for (var i = 0; i < 2 * iterations; i++)
+            streams.add(BufferStream.of(bytes, 64 * 1024));
+
+        var threadId = Thread.currentThread().getId();
+        var start = threads.getThreadAllocatedBytes(threadId);
+        for (var i = 0; i < iterations; i++)
+            standard.parse(streams.get(i));
+        var standardAllocated = threads.getThreadAllocatedBytes(threadId) - start;
+
+        start = threads.getThreadAllocatedBytes(threadId);
+        for (var i = iterations; i < 2 * iterations; i++)
+            zeroCopy.release(zeroCopy.parse(streams.get(i)));
+        var zeroCopyAllocated = threads.getThreadAllocatedBytes(threadId) - start;
+
+        System.out.printf("Parsing %d messages of %d bytes allocated %d bytes with standard marshaller and %d bytes with zero-copy marshaller%n",
+                iterations, bytes.length, standardAllocated, zeroCopyAllocated);
+        assertTrue(zeroCopyAllocated < standardAllocated / 2);
+    }
+}
@@ -0,0 +1,98 @@
+package org.pipservices3.grpc.codecs;
+
+import com.github.luben.zstd.Zstd;
+import org.junit.Test;
+import org.pipservices3.commons.convert.JsonConverter;
+import org.pipservices3.commons.data.IdGenerator;
+import org.pipservices3.grpc.Dummy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ZstdDictionariesTest {
+
+    /**
+     * Captures payloads like the ones sent by commandable dummy commands.
+     */
+    private static List<String> capturePayloads(int count, long seed) throws Exception {
+        var random = new Random(seed);
+        var payloads = new ArrayList<String>();
+        for (var i = 0; i < count; i++) {
+            var dummy = new Dummy(IdGenerator.nextLong(), "Key " + random.nextInt(1000),
+                    "Content of dummy " + random.nextInt(100000));
+            if (random.nextBoolean()) {
+                payloads.add(JsonConverter.toJson(dummy));
+            } else {
+                var dummies = new ArrayList<Dummy>();
+                for (var j = random.nextInt(5); j >= 0; j--)
+                    dummies.add(new Dummy(IdGenerator.nextLong(), "Key " + random.nextInt(1000), "Content " + j));
+                payloads.add("{\"total\":" + dummies.size() + ",\"data\":" + JsonConverter.toJson(dummies) + "}");
+            }
+        }
+        return payloads;
+    }
+
+    private static int gzipSize(byte[] bytes) throws IOException {
+        var output = new ByteArrayOutputStream();
+        try (var stream = new GZIPOutputStream(output)) {
+            stream.write(bytes);
+        }
+        return output.size();
+    }
+
+    @Test
+    public void testTrainedDictionaryImprovesRatio() throws Exception {
+        var dictionary = ZstdDictionaries.train(capturePayloads(5000, 1), 16 * 1024);
+        var dictionaries = new ZstdDictionaries();
+        var id = dictionaries.add(dictionary);
+        assertEquals(id, dictionaries.getCurrentId());
+
+        long original = 0, gzip = 0, zstd = 0, trained = 0;
+        for (var payload : capturePayloads(1000, 2)) {
+            var bytes = payload.getBytes(StandardCharsets.UTF_8);
+            original += bytes.length;
+            gzip += gzipSize(bytes);
+            zstd += Zstd.compress(bytes, 3).length;
+
+            var compressed = dictionaries.compress(id, payload);
+            trained += compressed.length;
+            assertEquals(payload, dictionaries.decompress(id, compressed));
+        }
+
+        assertTrue(trained < original);
+        assertTrue(trained < zstd);
+        assertTrue(trained < gzip);
+    }
+
+    @Test
+    public void testDictionariesCanBeRolled() throws Exception {
+        var dictionaries = new ZstdDictionaries();
+        assertEquals(0, dictionaries.getCurrentId());
+        assertFalse(dictionaries.contains(0));
+
+        var oldId = dictionaries.add(ZstdDictionaries.train(capturePayloads(2000, 3), 8 * 1024));
+        var payload = capturePayloads(1, 4).get(0);
+        var compressed = dictionaries.compress(oldId, payload);
+
+        // Payloads compressed with the old dictionary can be decompressed after a new one is added
+        var newId = dictionaries.add(ZstdDictionaries.train(capturePayloads(2000, 5), 8 * 1024));
+        assertNotEquals(oldId, newId);
+        assertEquals(newId, dictionaries.getCurrentId());
+        assertTrue(dictionaries.contains(oldId));
+        assertEquals(payload, dictionaries.decompress(oldId, compressed));
+
+        try {
+            dictionaries.decompress(12345, compressed);
+            fail("Exception expected");
+        } catch (IllegalArgumentException ex) {
+            // Unknown dictionary
+        }
+    }
+}
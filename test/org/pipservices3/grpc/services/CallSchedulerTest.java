@@ -0,0 +1,139 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.Status;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CallSchedulerTest {
+    CallScheduler scheduler;
+    List<String> executed;
+    CountDownLatch blocker;
+
+    @Before
+    public void setup() throws InterruptedException {
+        scheduler = new CallScheduler();
+        scheduler.configure(ConfigParams.fromTuples(
+                "scheduling.threads", 1,
+                "scheduling.weights.tenant_a", 2,
+                "scheduling.weights.tenant_b", 1
+        ));
+        scheduler.start();
+
+        executed = Collections.synchronizedList(new ArrayList<>());
+
+        // Occupy the only worker so the following calls stay in the queue
+        blocker = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        scheduler.execute(() -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, CallScheduler.NORMAL, "");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void teardown() {
+        scheduler.stop();
+    }
+
+    private void submit(String name, int priority, String tenant) {
+        scheduler.execute(() -> executed.add(name), priority, tenant);
+    }
+
+    private void drain(int count) throws InterruptedException {
+        var done = new CountDownLatch(1);
+        scheduler.execute(done::countDown, 9, "");
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(count, executed.size());
+    }
+
+    @Test
+    public void testParsePriority() {
+        assertEquals(CallScheduler.INTERACTIVE, CallScheduler.parsePriority("interactive", CallScheduler.NORMAL));
+        assertEquals(CallScheduler.BATCH, CallScheduler.parsePriority("batch", CallScheduler.NORMAL));
+        assertEquals(5, CallScheduler.parsePriority("5", CallScheduler.NORMAL));
+        assertEquals(CallScheduler.NORMAL, CallScheduler.parsePriority(null, CallScheduler.NORMAL));
+        assertEquals(CallScheduler.NORMAL, CallScheduler.parsePriority("abc", CallScheduler.NORMAL));
+    }
+
+    @Test
+    public void testInteractiveOvertakesBatch() throws InterruptedException {
+        submit("batch1", CallScheduler.BATCH, "");
+        submit("batch2", CallScheduler.BATCH, "");
+        submit("interactive1", CallScheduler.INTERACTIVE, "");
+        submit("normal1", CallScheduler.NORMAL, "");
+
+        assertEquals(4, scheduler.getQueueSize());
+
+        drain(4);
+
+        assertEquals(List.of("interactive1", "normal1", "batch1", "batch2"), executed);
+    }
+
+    @Test
+    public void testWeightedFairQueueing() throws InterruptedException {
+        for (int index = 0; index < 6; index++)
+            submit("b" + index, CallScheduler.NORMAL, "tenant_b");
+        for (int index = 0; index < 6; index++)
+            submit("a" + index, CallScheduler.NORMAL, "tenant_a");
+
+        drain(12);
+
+        // Tenant A has double weight, so among the first 6 calls it gets 4
+        var first = executed.subList(0, 6);
+        assertEquals(4, first.stream().filter(name -> name.startsWith("a")).count());
+        assertEquals(2, first.stream().filter(name -> name.startsWith("b")).count());
+    }
+
+    @Test
+    public void testIdleTenantsAreRemoved() throws InterruptedException {
+        for (int index = 0; index < 100; index++)
+            submit("t" + index, CallScheduler.NORMAL, "tenant_" + index);
+        assertEquals(100, scheduler.getTenantCount());
+
+        drain(100);
+        assertEquals(0, scheduler.getTenantCount());
+    }
+
+    @Test
+    public void testFailedCalls() throws InterruptedException {
+        var codes = Collections.synchronizedList(new ArrayList<Status.Code>());
+        var failed = new CountDownLatch(1);
+        scheduler.execute(() -> {
+            throw new IllegalStateException("Handler failed");
+        }, status -> {
+            codes.add(status.getCode());
+            failed.countDown();
+        }, CallScheduler.NORMAL, "");
+
+        blocker.countDown();
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(Status.Code.INTERNAL), codes);
+    }
+
+    @Test
+    public void testStopFailsQueuedCalls() {
+        var codes = Collections.synchronizedList(new ArrayList<Status.Code>());
+        scheduler.execute(() -> executed.add("queued"), status -> codes.add(status.getCode()), CallScheduler.NORMAL, "");
+
+        scheduler.stop();
+        assertEquals(List.of(Status.Code.UNAVAILABLE), codes);
+        assertTrue(executed.isEmpty());
+        assertEquals(0, scheduler.getQueueSize());
+    }
+}
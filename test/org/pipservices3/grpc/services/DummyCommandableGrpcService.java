@@ -1,11 +1,15 @@
 package org.pipservices3.grpc.services;
 
+import org.pipservices3.commons.convert.TypeCode;
 import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.validate.ObjectSchema;
 
 public class DummyCommandableGrpcService extends CommandableGrpcService {
 
     public DummyCommandableGrpcService() {
         super("dummy");
         this._dependencyResolver.put("controller", new Descriptor("pip-services-dummies", "controller", "default", "*", "*"));
+        this.registerCommandSchema("get_dummy_by_id", new ObjectSchema()
+                .withRequiredProperty("dummy_id", TypeCode.String));
     }
 }
@@ -23,6 +23,7 @@ import org.pipservices3.grpc.dummies.DummyIdRequest;
 import org.pipservices3.grpc.dummies.DummyObjectRequest;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -38,7 +39,10 @@ public class DummyCommandableGrpcServiceTest {
     static ConfigParams grpcConfig = ConfigParams.fromTuples(
             "connection.protocol", "http",
             "connection.host", "localhost",
-            "connection.port", 3001
+            "connection.port", 3001,
+            "cache.commands.get_dummies", 60000,
+            "options.result_versions", true,
+            "idempotency.max_entries", 10
     );
 
     static DummyCommandableGrpcService service;
@@ -181,4 +185,140 @@ public class DummyCommandableGrpcServiceTest {
         assertEquals("", response.getError().getMessage());
         assertTrue(response.getResultEmpty());
     }
+
+    @Test
+    public void testInvalidArguments() {
+        var response = client.invoke(InvokeRequest.newBuilder()
+                .setArgsJson("{\"id\":\"1\"}")
+                .setMethod("dummy.get_dummy_by_id")
+                .setArgsEmpty(false)
+                .build());
+
+        assertTrue(response.hasError());
+        assertEquals(400, response.getError().getStatus());
+        assertTrue(response.getError().getMessage().contains("dummy_id"));
+    }
+
+    @Test
+    public void testConditionalInvoke() throws IOException {
+        var response = client.invoke(InvokeRequest.newBuilder()
+                .setArgsJson(JsonConverter.toJson(_dummy1))
+                .setMethod("dummy.create_dummy")
+                .build());
+        var dummy = JsonConverter.fromJson(Dummy.class, response.getResultJson());
+
+        // Get the dummy and its version
+        var request = InvokeRequest.newBuilder()
+                .setArgsJson("{\"dummy_id\":\"" + dummy.getId() + "\"}")
+                .setMethod("dummy.get_dummy_by_id");
+
+        response = client.invoke(request.build());
+        var version = response.getVersion();
+        assertFalse(version.isEmpty());
+        assertFalse(response.getNotModified());
+
+        // Unchanged result is not sent again
+        response = client.invoke(request.setVersion(version).build());
+        assertTrue(response.getNotModified());
+        assertEquals(version, response.getVersion());
+        assertTrue(response.getResultJson().isEmpty());
+
+        // Changed result is sent with a new version
+        dummy.setContent("Updated Content");
+        client.invoke(InvokeRequest.newBuilder()
+                .setArgsJson(JsonConverter.toJson(dummy))
+                .setMethod("dummy.update_dummy")
+                .build());
+
+        response = client.invoke(request.setVersion(version).build());
+        assertFalse(response.getNotModified());
+        assertNotEquals(version, response.getVersion());
+        assertEquals("Updated Content", JsonConverter.fromJson(Dummy.class, response.getResultJson()).getContent());
+
+        deleteDummy(dummy.getId());
+    }
+
+    private void deleteDummy(String dummyId) {
+        client.invoke(InvokeRequest.newBuilder()
+                .setArgsJson("{\"dummy_id\":\"" + dummyId + "\"}")
+                .setMethod("dummy.delete_dummy")
+                .build());
+    }
+
+    private int getCachedDummiesCount(String argsJson) throws IOException {
+        var response = client.invoke(InvokeRequest.newBuilder()
+                .setArgsJson(argsJson)
+                .setMethod("dummy.get_dummies")
+                .build());
+        return JsonConverter.fromJson(DataPage.class, response.getResultJson()).getData().size();
+    }
+
+    @Test
+    public void testCachedCommand() throws IOException {
+        var response = client.invoke(InvokeRequest.newBuilder()
+                .setArgsJson(JsonConverter.toJson(new Dummy(null, "Cached", "Content 1")))
+                .setMethod("dummy.create_dummy")
+                .build());
+        var dummy1 = JsonConverter.fromJson(Dummy.class, response.getResultJson());
+
+        assertEquals(1, getCachedDummiesCount("{\"filter\":{\"key\":\"Cached\"},\"paging\":{\"take\":10}}"));
+
+        response = client.invoke(InvokeRequest.newBuilder()
+                .setArgsJson(JsonConverter.toJson(new Dummy(null, "Cached", "Content 2")))
+                .setMethod("dummy.create_dummy")
+                .build());
+        var dummy2 = JsonConverter.fromJson(Dummy.class, response.getResultJson());
+
+        // Cached result is returned for the same arguments in a different order
+        assertEquals(1, getCachedDummiesCount("{\"paging\":{\"take\":10},\"filter\":{\"key\":\"Cached\"}}"));
+
+        // Fresh result is returned after invalidation
+        assertTrue(service.invalidateCache("get_dummies") > 0);
+        assertEquals(2, getCachedDummiesCount("{\"filter\":{\"key\":\"Cached\"},\"paging\":{\"take\":10}}"));
+
+        deleteDummy(dummy1.getId());
+        deleteDummy(dummy2.getId());
+    }
+
+    @Test
+    public void testIdempotentInvoke() throws IOException {
+        var request = InvokeRequest.newBuilder()
+                .setArgsJson(JsonConverter.toJson(new Dummy(null, "Idempotent", "Content 1")))
+                .setMethod("dummy.create_dummy")
+                .setIdempotencyKey("create-1")
+                .build();
+
+        // Retried command is executed only once
+        var dummy1 = JsonConverter.fromJson(Dummy.class, client.invoke(request).getResultJson());
+        var dummy2 = JsonConverter.fromJson(Dummy.class, client.invoke(request).getResultJson());
+        assertEquals(dummy1.getId(), dummy2.getId());
+
+        assertEquals(1, getCachedDummiesCount("{\"filter\":{\"key\":\"Idempotent\"}}"));
+
+        deleteDummy(dummy1.getId());
+    }
+
+    @Test
+    public void testIdempotencyStoreOverflow() throws IOException {
+        var ids = new ArrayList<String>();
+        for (var index = 0; index < 25; index++)
+            ids.add(JsonConverter.fromJson(Dummy.class, client.invoke(createIdempotentRequest(index)).getResultJson()).getId());
+
+        // Replies of the newest keys survive when the store is full
+        for (var index = 15; index < 25; index++) {
+            var dummy = JsonConverter.fromJson(Dummy.class, client.invoke(createIdempotentRequest(index)).getResultJson());
+            assertEquals(ids.get(index), dummy.getId());
+        }
+
+        for (var id : ids)
+            deleteDummy(id);
+    }
+
+    private static InvokeRequest createIdempotentRequest(int index) throws IOException {
+        return InvokeRequest.newBuilder()
+                .setArgsJson(JsonConverter.toJson(new Dummy(null, "Stored " + index, "Content " + index)))
+                .setMethod("dummy.create_dummy")
+                .setIdempotencyKey("store-" + index)
+                .build();
+    }
 }
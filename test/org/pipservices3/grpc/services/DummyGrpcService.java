@@ -4,6 +4,7 @@ import io.grpc.Metadata;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
 import io.grpc.stub.StreamObserver;
+import org.pipservices3.commons.convert.TypeCode;
 import org.pipservices3.commons.data.FilterParams;
 import org.pipservices3.commons.data.PagingParams;
 import org.pipservices3.commons.errors.ApplicationException;
@@ -13,13 +14,16 @@ import org.pipservices3.commons.refer.Descriptor;
 
 import org.pipservices3.commons.refer.IReferences;
 import org.pipservices3.commons.refer.ReferenceException;
+import org.pipservices3.commons.validate.ObjectSchema;
 import org.pipservices3.grpc.dummies.*;
 import org.pipservices3.grpc.Dummy;
+import org.pipservices3.grpc.DummySchema;
 import org.pipservices3.grpc.IDummyController;
 
 public class DummyGrpcService extends GrpcService {
     private IDummyController _controller;
     private int _numberOfCalls = 0;
+    private int _numberOfDeletes = 0;
 
     public DummyGrpcService() {
         super(DummiesGrpc.getServiceDescriptor());
@@ -30,6 +34,15 @@ public class DummyGrpcService extends GrpcService {
         return this._numberOfCalls;
     }
 
+    public int getNumberOfDeletes() {
+        return this._numberOfDeletes;
+    }
+
+    private <ReqT, RespT> ServerCall.Listener<ReqT> incrementNumberOfDeletes(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        this._numberOfDeletes++;
+        return next.startCall(call, headers);
+    }
+
     private <ReqT, RespT> ServerCall.Listener<ReqT> incrementNumberOfCalls(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
         this._numberOfCalls++;
         return next.startCall(call, headers);
@@ -106,6 +119,80 @@ public class DummyGrpcService extends GrpcService {
         responseObserver.onCompleted();
     }
 
+    private void streamDummies(DummiesPageRequest request, StreamObserver<org.pipservices3.grpc.dummies.Dummy> responseObserver) {
+        var filter = FilterParams.fromValue(request.getFilterMap());
+        var paging = PagingParams.fromValue(request.getPaging());
+
+        try {
+            var page = _controller.getPageByFilter(request.getCorrelationId(), filter, paging);
+
+            for (var item : page.getData())
+                responseObserver.onNext(dummyToObject(item));
+
+            responseObserver.onCompleted();
+        } catch (ApplicationException ex) {
+            responseObserver.onError(ex);
+        }
+    }
+
+    private void getPageByFilterChunked(DummiesPageRequest request, StreamObserver<DummiesPage> responseObserver) {
+        var filter = FilterParams.fromValue(request.getFilterMap());
+        var paging = PagingParams.fromValue(request.getPaging());
+
+        try {
+            var page = _controller.getPageByFilter(request.getCorrelationId(), filter, paging);
+
+            this.streamChunks(page.getData().iterator(), 2,
+                    (items) -> DummiesPage.newBuilder()
+                            .addAllData(items.stream().map(this::dummyToObject).toList())
+                            .build(),
+                    responseObserver);
+        } catch (ApplicationException ex) {
+            responseObserver.onError(ex);
+        }
+    }
+
+    private StreamObserver<DummyObjectRequest> createDummies(StreamObserver<DummiesPage> responseObserver) {
+        var reply = DummiesPage.newBuilder();
+
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(DummyObjectRequest request) {
+                var result = _controller.create(request.getCorrelationId(), dummyToObject(request.getDummy()));
+                reply.addData(dummyToObject(result));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+                reply.setTotal(reply.getDataCount());
+                responseObserver.onNext(reply.build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    private StreamObserver<org.pipservices3.grpc.dummies.Dummy> echoDummies(StreamObserver<org.pipservices3.grpc.dummies.Dummy> responseObserver) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(org.pipservices3.grpc.dummies.Dummy dummy) {
+                responseObserver.onNext(dummy);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
     private org.pipservices3.grpc.dummies.Dummy dummyToObject(Dummy dummy) {
         if (dummy == null)
             return org.pipservices3.grpc.dummies.Dummy.getDefaultInstance();
@@ -123,6 +210,7 @@ public class DummyGrpcService extends GrpcService {
     @Override
     public void register() {
         this.registerInterceptor(this::incrementNumberOfCalls);
+        this.registerMethodInterceptor("delete_dummy_by_id", this::incrementNumberOfDeletes);
 
         this.registerMethod(
                 "get_dummies",
@@ -135,34 +223,60 @@ public class DummyGrpcService extends GrpcService {
 
         this.registerMethod(
                 "get_dummy_by_id",
-                null,
-                // new ObjectSchema(true)
-                //     .withRequiredProperty("dummy_id", TypeCode.String),
+                new ObjectSchema()
+                        .withRequiredProperty("dummy_id", TypeCode.String),
                 this::getOneById
         );
 
         this.registerMethod(
                 "create_dummy",
-                null,
-                // new ObjectSchema(true)
-                //     .withRequiredProperty("dummy", new DummySchema()),
+                new ObjectSchema()
+                        .withRequiredProperty("dummy", new DummySchema()),
                 this::create
         );
 
         this.registerMethod(
                 "update_dummy",
-                null,
-                // new ObjectSchema(true)
-                //     .withRequiredProperty("dummy", new DummySchema()),
+                new ObjectSchema()
+                        .withRequiredProperty("dummy", new DummySchema()),
                 this::update
         );
 
         this.registerMethod(
                 "delete_dummy_by_id",
-                null,
-                // new ObjectSchema(true)
-                //     .withRequiredProperty("dummy_id", TypeCode.String),
+                new ObjectSchema()
+                        .withRequiredProperty("dummy_id", TypeCode.String),
                 this::deleteById
         );
+
+        this.registerServerStreamingMethod(
+                "stream_dummies",
+                null,
+                this::streamDummies
+        );
+
+        this.registerServerStreamingMethod(
+                "get_dummies_chunked",
+                null,
+                this::getPageByFilterChunked
+        );
+
+        this.registerClientStreamingMethod(
+                "create_dummies",
+                new ObjectSchema()
+                        .withRequiredProperty("dummy", new DummySchema()),
+                this::createDummies
+        );
+
+        this.registerBidiStreamingMethod(
+                "echo_dummies",
+                null,
+                this::echoDummies
+        );
+
+        // Read-only requests are safe to send during warm-up
+        this.registerWarmupRequest("get_dummies", org.pipservices3.grpc.dummies.DummiesPageRequest.getDefaultInstance());
+        this.registerWarmupRequest("get_dummy_by_id",
+                org.pipservices3.grpc.dummies.DummyIdRequest.newBuilder().setDummyId("warmup").build());
     }
 }
@@ -2,6 +2,8 @@ package org.pipservices3.grpc.services;
 
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import org.junit.*;
 import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.errors.ApplicationException;
@@ -10,6 +12,8 @@ import org.pipservices3.commons.refer.Descriptor;
 import org.pipservices3.commons.refer.References;
 import org.pipservices3.grpc.Dummy;
 import org.pipservices3.grpc.DummyController;
+import org.pipservices3.grpc.commandable.CommandableGrpc;
+import org.pipservices3.grpc.commandable.InvokeRequest;
 import org.pipservices3.grpc.dummies.DummiesGrpc;
 import org.pipservices3.grpc.dummies.DummiesPageRequest;
 import org.pipservices3.grpc.dummies.DummyIdRequest;
@@ -147,5 +151,21 @@ public class DummyGrpcServiceTest {
         assertEquals("", dummy.toString());
 
         assertEquals(service.getNumberOfCalls(), 6);
+        assertEquals(service.getNumberOfDeletes(), 1);
+
+        // Interceptors of the service are not called for other services in the endpoint
+        CommandableGrpc.newBlockingStub(_channel).invoke(InvokeRequest.newBuilder().setArgsJson("{}").build());
+        assertEquals(service.getNumberOfCalls(), 6);
+
+        // Requests that do not match the schema are rejected
+        try {
+            client.createDummy(DummyObjectRequest.newBuilder()
+                    .setDummy(org.pipservices3.grpc.dummies.Dummy.newBuilder().setContent("Content 1"))
+                    .build());
+            fail("Exception expected");
+        } catch (StatusRuntimeException ex) {
+            assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+            assertTrue(ex.getStatus().getDescription().contains("dummy.key"));
+        }
     }
 }
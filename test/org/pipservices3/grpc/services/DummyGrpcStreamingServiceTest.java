@@ -0,0 +1,179 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.*;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.errors.InvalidStateException;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.References;
+import org.pipservices3.grpc.DummyController;
+import org.pipservices3.grpc.dummies.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DummyGrpcStreamingServiceTest {
+
+    private static final ConfigParams grpcConfig = ConfigParams.fromTuples(
+            "connection.protocol", "http",
+            "connection.host", "localhost",
+            "connection.port", 3003
+    );
+
+    ManagedChannel _channel;
+
+    static DummyGrpcService service;
+
+    DummiesGrpc.DummiesBlockingStub client;
+    DummiesGrpc.DummiesStub asyncClient;
+
+    @BeforeClass
+    public static void setupClass() throws ApplicationException {
+        var ctrl = new DummyController();
+
+        service = new DummyGrpcService();
+        service.configure(grpcConfig);
+
+        References references = References.fromTuples(
+                new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), ctrl,
+                new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), service
+        );
+        service.setReferences(references);
+
+        service.open(null);
+    }
+
+    @AfterClass
+    public static void teardownClass() throws InvalidStateException {
+        service.close(null);
+    }
+
+    @Before
+    public void setup() {
+        _channel = ManagedChannelBuilder.forTarget("localhost:3003")
+                .usePlaintext()
+                .build();
+        client = DummiesGrpc.newBlockingStub(_channel);
+        asyncClient = DummiesGrpc.newStub(_channel);
+    }
+
+    @After
+    public void teardown() throws InterruptedException {
+        _channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static Dummy createDummy(String key) {
+        return Dummy.newBuilder().setKey(key).setContent("Content " + key).build();
+    }
+
+    @Test
+    public void testStreamingOperations() throws Exception {
+        // Create dummies with client streaming
+        var created = new CompletableFuture<DummiesPage>();
+        var requests = asyncClient.createDummies(new StreamObserver<>() {
+            @Override
+            public void onNext(DummiesPage value) {
+                created.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                created.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+
+        for (int index = 0; index < 10; index++)
+            requests.onNext(DummyObjectRequest.newBuilder().setDummy(createDummy("Key " + index)).build());
+        requests.onCompleted();
+
+        var page = created.get(5, TimeUnit.SECONDS);
+        assertEquals(10, page.getTotal());
+        assertEquals(10, page.getDataCount());
+
+        // Read dummies with server streaming
+        var stream = client.streamDummies(DummiesPageRequest.newBuilder().build());
+
+        var count = 0;
+        while (stream.hasNext()) {
+            var dummy = stream.next();
+            assertFalse(dummy.getId().isEmpty());
+            count++;
+        }
+        assertEquals(10, count);
+
+        // Echo dummies with bidirectional streaming
+        var received = Collections.synchronizedList(new ArrayList<Dummy>());
+        var completed = new CountDownLatch(1);
+        var echo = asyncClient.echoDummies(new StreamObserver<>() {
+            @Override
+            public void onNext(Dummy value) {
+                received.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.countDown();
+            }
+        });
+
+        echo.onNext(createDummy("Key A"));
+        echo.onNext(createDummy("Key B"));
+        echo.onCompleted();
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("Key A", "Key B"), received.stream().map(Dummy::getKey).toList());
+    }
+
+    @Test
+    public void testStreamingValidation() throws Exception {
+        var created = new CompletableFuture<DummiesPage>();
+        var requests = asyncClient.createDummies(new StreamObserver<>() {
+            @Override
+            public void onNext(DummiesPage value) {
+                created.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                created.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+
+        // Dummy without a key is rejected before it reaches the controller
+        requests.onNext(DummyObjectRequest.newBuilder()
+                .setDummy(Dummy.newBuilder().setContent("Content")).build());
+
+        try {
+            created.get(5, TimeUnit.SECONDS);
+            fail("Exception expected");
+        } catch (ExecutionException ex) {
+            var status = Status.fromThrowable(ex.getCause());
+            assertEquals(Status.Code.INVALID_ARGUMENT, status.getCode());
+            assertTrue(status.getDescription().contains("dummy.key"));
+        }
+    }
+}
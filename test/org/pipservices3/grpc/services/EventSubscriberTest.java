@@ -0,0 +1,125 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.Test;
+import org.pipservices3.grpc.commandable.EventMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EventSubscriberTest {
+
+    static class TestObserver extends ServerCallStreamObserver<EventMessage> {
+        final List<EventMessage> sent = new ArrayList<>();
+        boolean ready = false;
+        boolean completed = false;
+        Throwable error;
+        Runnable onReadyHandler;
+
+        void becomeReady() {
+            ready = true;
+            onReadyHandler.run();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(EventMessage value) {
+            sent.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+
+    private static EventMessage createEvent(long sequence, String topic, String key) {
+        return EventMessage.newBuilder().setSequence(sequence).setTopic(topic).setKey(key).build();
+    }
+
+    @Test
+    public void testCoalescing() {
+        var observer = new TestObserver();
+        var subscriber = new EventSubscriber(observer, List.of("dummies"), 10);
+        subscriber.start(() -> {});
+
+        assertTrue(subscriber.accepts("dummies"));
+        assertFalse(subscriber.accepts("others"));
+
+        subscriber.push(createEvent(1, "dummies", "1"));
+        subscriber.push(createEvent(2, "dummies", "2"));
+        subscriber.push(createEvent(3, "dummies", "1"));
+        assertEquals(2, subscriber.getBufferSize());
+
+        observer.becomeReady();
+        assertEquals(2, observer.sent.size());
+        assertEquals(2, observer.sent.get(0).getSequence());
+        assertEquals(3, observer.sent.get(1).getSequence());
+
+        // Events are sent immediately while the transport is ready
+        subscriber.push(createEvent(4, "dummies", "1"));
+        assertEquals(3, observer.sent.size());
+        assertEquals(0, subscriber.getBufferSize());
+    }
+
+    @Test
+    public void testSlowSubscriberEviction() {
+        var closed = new boolean[]{false};
+        var observer = new TestObserver();
+        var subscriber = new EventSubscriber(observer, List.of(), 3);
+        subscriber.start(() -> closed[0] = true);
+
+        assertTrue(subscriber.push(createEvent(1, "dummies", "")));
+        assertTrue(subscriber.push(createEvent(2, "dummies", "")));
+        assertTrue(subscriber.push(createEvent(3, "dummies", "")));
+        assertFalse(subscriber.push(createEvent(4, "dummies", "")));
+
+        assertTrue(subscriber.isClosed());
+        assertTrue(closed[0]);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, ((StatusRuntimeException) observer.error).getStatus().getCode());
+        assertEquals(0, observer.sent.size());
+    }
+}
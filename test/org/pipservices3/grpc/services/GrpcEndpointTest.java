@@ -1,12 +1,28 @@
 package org.pipservices3.grpc.services;
 
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.health.v1.HealthGrpc;
+import io.netty.channel.epoll.Epoll;
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.References;
+import org.pipservices3.grpc.Dummy;
+import org.pipservices3.grpc.DummyController;
+import org.pipservices3.grpc.clients.DummyGrpcClient;
+import org.pipservices3.grpc.clients.LoadReportClient;
+import org.pipservices3.grpc.dummies.DummiesGrpc;
 import org.pipservices3.grpc.services.GrpcEndpoint;
 
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class GrpcEndpointTest {
@@ -35,4 +51,173 @@ public class GrpcEndpointTest {
     public void testIsOpen() {
         assertTrue(endpoint.isOpen());
     }
+
+    @Test
+    public void testMultipleListeners() throws ApplicationException {
+        Assume.assumeTrue("Native epoll transport is not available", Epoll.isAvailable());
+
+        var config = ConfigParams.fromTuples(
+                "connection.protocol", "http",
+                "connection.host", "localhost",
+                "connection.port", 3006,
+                "options.listeners", 4,
+                "options.listener_threads", 1
+        );
+
+        var service = new DummyGrpcService();
+        service.configure(config);
+        service.setReferences(References.fromTuples(
+                new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), new DummyController(),
+                new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), service
+        ));
+        service.open(null);
+
+        var clients = new ArrayList<DummyGrpcClient>();
+        try {
+            // Each client opens its own connection which is accepted by one of the listeners
+            for (var index = 0; index < 16; index++) {
+                var client = new DummyGrpcClient();
+                client.configure(config);
+                client.setReferences(new References());
+                client.open(null);
+                clients.add(client);
+            }
+
+            var dummy = clients.get(0).createDummy(null, new Dummy(null, "Key 1", "Content 1"));
+            for (var client : clients)
+                assertEquals(dummy.getId(), client.getDummyById(null, dummy.getId()).getId());
+        } finally {
+            for (var client : clients)
+                client.close(null);
+            service.close(null);
+        }
+    }
+
+    @Test
+    public void testConnectionLifecycle() throws ApplicationException, InterruptedException {
+        var config = ConfigParams.fromTuples(
+                "connection.protocol", "http",
+                "connection.host", "localhost",
+                "connection.port", 3007,
+                "options.max_connection_age", 200,
+                "options.max_connection_age_grace", 100,
+                "options.max_connection_idle", 1000,
+                "options.keepalive_time", 10000,
+                "options.keepalive_timeout", 1000,
+                "options.permit_keepalive_time", 10000,
+                "options.permit_keepalive_without_calls", true
+        );
+
+        var service = new DummyGrpcService();
+        service.configure(config);
+        service.setReferences(References.fromTuples(
+                new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), new DummyController(),
+                new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), service
+        ));
+        service.open(null);
+
+        var client = new DummyGrpcClient();
+        try {
+            client.configure(ConfigParams.fromTuples(
+                    "connection.protocol", "http",
+                    "connection.host", "localhost",
+                    "connection.port", 3007,
+                    "options.keepalive_time", 10000,
+                    "options.keepalive_timeout", 1000,
+                    "options.keepalive_without_calls", true,
+                    "options.idle_timeout", 60000
+            ));
+            client.setReferences(new References());
+            client.open(null);
+
+            var dummy = client.createDummy(null, new Dummy(null, "Key 1", "Content 1"));
+
+            // Aged connection is closed by the server and the client transparently reconnects
+            Thread.sleep(500);
+            assertEquals(dummy.getId(), client.getDummyById(null, dummy.getId()).getId());
+
+            client.deleteDummy(null, dummy.getId());
+        } finally {
+            client.close(null);
+            service.close(null);
+        }
+    }
+
+    @Test
+    public void testWarmup() throws ApplicationException {
+        var service = new DummyGrpcService();
+        service.configure(ConfigParams.fromTuples(
+                "connection.protocol", "http",
+                "connection.host", "localhost",
+                "connection.port", 3008,
+                "options.warmup_iterations", 100
+        ));
+        service.setReferences(References.fromTuples(
+                new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), new DummyController(),
+                new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), service
+        ));
+
+        try {
+            service.open(null);
+
+            // Registered requests went through interceptors before the endpoint started listening
+            assertEquals(200, service.getNumberOfCalls());
+        } finally {
+            service.close(null);
+        }
+    }
+
+    @Test
+    public void testHealthAndLoadReports() throws ApplicationException {
+        var config = ConfigParams.fromTuples(
+                "connection.protocol", "http",
+                "connection.host", "localhost",
+                "connection.port", 3009
+        );
+
+        var service = new DummyGrpcService();
+        service.configure(config);
+        service.setReferences(References.fromTuples(
+                new Descriptor("pip-services-dummies", "controller", "default", "default", "1.0"), new DummyController(),
+                new Descriptor("pip-services-dummies", "service", "grpc", "default", "1.0"), service
+        ));
+        service.open(null);
+
+        var channel = ManagedChannelBuilder.forAddress("localhost", 3009).usePlaintext().build();
+        var loadClient = new LoadReportClient();
+        try {
+            var health = HealthGrpc.newBlockingStub(channel);
+            var serviceName = DummiesGrpc.getServiceDescriptor().getName();
+            assertEquals(HealthCheckResponse.ServingStatus.SERVING,
+                    health.check(HealthCheckRequest.newBuilder().build()).getStatus());
+            assertEquals(HealthCheckResponse.ServingStatus.SERVING,
+                    health.check(HealthCheckRequest.newBuilder().setService(serviceName).build()).getStatus());
+
+            loadClient.configure(config);
+            loadClient.setReferences(new References());
+            loadClient.open(null);
+            try (var reports = loadClient.watchLoad(null, 100)) {
+                var received = reports.limit(2).toList();
+                assertEquals(2, received.size());
+                for (var report : received) {
+                    // Watching is not counted as a call in progress
+                    assertEquals(0, report.getInFlightCalls());
+                    assertEquals(0, report.getQueueSize());
+                    assertTrue(report.getCpuUtilization() <= 1);
+                }
+                assertTrue(received.get(1).getTime() >= received.get(0).getTime());
+            }
+
+            // Drained endpoint still serves calls
+            service._endpoint.drain(null);
+            assertEquals(HealthCheckResponse.ServingStatus.NOT_SERVING,
+                    health.check(HealthCheckRequest.newBuilder().setService(serviceName).build()).getStatus());
+            assertEquals(HealthCheckResponse.ServingStatus.NOT_SERVING,
+                    health.check(HealthCheckRequest.newBuilder().build()).getStatus());
+        } finally {
+            loadClient.close(null);
+            channel.shutdownNow();
+            service.close(null);
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.Test;
+import org.pipservices3.grpc.dummies.Dummy;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.Assert.*;
+
+public class OutboundStreamTest {
+
+    static class TestObserver extends ServerCallStreamObserver<Dummy> {
+        final List<Dummy> sent = new ArrayList<>();
+        boolean ready = false;
+        boolean completed = false;
+        Throwable error;
+        Runnable onReadyHandler;
+
+        void becomeReady() {
+            ready = true;
+            onReadyHandler.run();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(Dummy value) {
+            sent.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+
+    static class TestPublisher implements Flow.Publisher<Dummy> {
+        Flow.Subscriber<? super Dummy> subscriber;
+        long requested = 0;
+        boolean cancelled = false;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Dummy> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested += n;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static Dummy createDummy(int index) {
+        return Dummy.newBuilder().setId("" + index).setKey("Key " + index).setContent("Content " + index).build();
+    }
+
+    @Test
+    public void testIteratorPulledOnlyWhenReady() {
+        var pulled = new int[]{0};
+        var producer = new Iterator<Dummy>() {
+            @Override
+            public boolean hasNext() {
+                return pulled[0] < 5;
+            }
+
+            @Override
+            public Dummy next() {
+                return createDummy(pulled[0]++);
+            }
+        };
+
+        var observer = new TestObserver();
+        var stream = new OutboundStream<>(observer, producer);
+        stream.start();
+
+        assertEquals(0, pulled[0]);
+        assertFalse(stream.isDone());
+
+        observer.becomeReady();
+
+        assertEquals(5, pulled[0]);
+        assertEquals(5, observer.sent.size());
+        assertTrue(observer.completed);
+        assertTrue(stream.isDone());
+    }
+
+    @Test
+    public void testPublisherBufferBudget() {
+        var size = createDummy(1).getSerializedSize();
+
+        var observer = new TestObserver();
+        var publisher = new TestPublisher();
+        var stream = new OutboundStream<>(observer, publisher)
+                .withMaxBufferedBytes(2L * size);
+        stream.start();
+
+        assertEquals(1, publisher.requested);
+
+        // Client is slow, messages are buffered until the budget is reached
+        publisher.subscriber.onNext(createDummy(1));
+        assertEquals(2, publisher.requested);
+
+        publisher.subscriber.onNext(createDummy(2));
+        assertEquals(2, publisher.requested);
+        assertEquals(2L * size, stream.getBufferedBytes());
+        assertEquals(0, observer.sent.size());
+
+        // Client catches up and the publisher is asked for more
+        observer.becomeReady();
+        assertEquals(2, observer.sent.size());
+        assertEquals(0, stream.getBufferedBytes());
+        assertEquals(3, publisher.requested);
+
+        publisher.subscriber.onComplete();
+        assertTrue(observer.completed);
+        assertNull(observer.error);
+        assertFalse(publisher.cancelled);
+    }
+}
@@ -0,0 +1,67 @@
+package org.pipservices3.grpc.services;
+
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.protobuf.ProtoUtils;
+import org.junit.Test;
+import org.pipservices3.grpc.dummies.Dummy;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+public class PreSerializedMarshallerTest {
+
+    static class CountingMarshaller implements MethodDescriptor.Marshaller<Dummy> {
+        final MethodDescriptor.Marshaller<Dummy> marshaller = ProtoUtils.marshaller(Dummy.getDefaultInstance());
+        int serialized = 0;
+
+        @Override
+        public InputStream stream(Dummy value) {
+            serialized++;
+            return marshaller.stream(value);
+        }
+
+        @Override
+        public Dummy parse(InputStream stream) {
+            return marshaller.parse(stream);
+        }
+    }
+
+    private static Dummy createDummy(int index) {
+        return Dummy.newBuilder().setId("" + index).setKey("Key " + index).setContent("Content " + index).build();
+    }
+
+    @Test
+    public void testCachedResponsesAreNotSerializedAgain() throws IOException {
+        var counting = new CountingMarshaller();
+        var marshaller = new PreSerializedMarshaller<>(counting, 2);
+
+        var dummy = marshaller.cache(createDummy(1));
+        assertEquals(1, counting.serialized);
+
+        for (var i = 0; i < 10; i++) {
+            var stream = marshaller.stream(dummy);
+            assertEquals(dummy.getSerializedSize(), ((KnownLength) stream).available());
+            assertEquals(dummy, marshaller.parse(stream));
+        }
+        assertEquals(1, counting.serialized);
+
+        // Equal but different instance is serialized as usual
+        marshaller.stream(createDummy(1));
+        assertEquals(2, counting.serialized);
+    }
+
+    @Test
+    public void testSizeIsLimited() {
+        var marshaller = new PreSerializedMarshaller<>(new CountingMarshaller(), 2);
+
+        var dummy1 = marshaller.cache(createDummy(1));
+        marshaller.cache(createDummy(2));
+        marshaller.stream(dummy1);
+        marshaller.cache(createDummy(3));
+
+        assertEquals(2, marshaller.getSize());
+    }
+}
@@ -0,0 +1,148 @@
+package org.pipservices3.grpc.validate;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.pipservices3.commons.convert.TypeCode;
+import org.pipservices3.commons.run.Parameters;
+import org.pipservices3.commons.validate.ObjectSchema;
+import org.pipservices3.commons.validate.Schema;
+import org.pipservices3.grpc.DummySchema;
+import org.pipservices3.grpc.dummies.Dummy;
+import org.pipservices3.grpc.dummies.DummyIdRequest;
+import org.pipservices3.grpc.dummies.DummyObjectRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CompiledValidatorTest {
+    private static final Schema requestSchema = new ObjectSchema()
+            .withOptionalProperty("correlation_id", TypeCode.String)
+            .withRequiredProperty("dummy", new DummySchema());
+
+    private static DummyObjectRequest createRequest(String key) {
+        var dummy = Dummy.newBuilder().setId("1").setContent("Content 1");
+        if (key != null)
+            dummy.setKey(key);
+        return DummyObjectRequest.newBuilder().setCorrelationId("123").setDummy(dummy).build();
+    }
+
+    private static Map<String, Object> toMap(DummyObjectRequest request) {
+        var dummy = new LinkedHashMap<String, Object>();
+        dummy.put("id", request.getDummy().getId());
+        dummy.put("key", request.getDummy().getKey().isEmpty() ? null : request.getDummy().getKey());
+        dummy.put("content", request.getDummy().getContent());
+
+        var map = new LinkedHashMap<String, Object>();
+        map.put("correlation_id", request.getCorrelationId());
+        map.put("dummy", dummy);
+        return map;
+    }
+
+    @Test
+    public void testMessageValidation() {
+        var validator = CompiledValidator.forMessage(requestSchema, DummyObjectRequest.getDescriptor());
+
+        assertEquals(0, validator.validate(createRequest("Key 1")).size());
+        assertNull(validator.validateAndReturnException(null, createRequest("Key 1")));
+
+        var results = validator.validate(createRequest(null));
+        assertEquals(1, results.size());
+        assertEquals("dummy.key", results.get(0).getPath());
+        assertEquals("VALUE_IS_NULL", results.get(0).getCode());
+        assertTrue(results.get(0).getMessage().contains("dummy.key"));
+        assertNotNull(validator.validateAndReturnException("123", createRequest(null)));
+
+        results = validator.validate(DummyObjectRequest.getDefaultInstance());
+        assertEquals(1, results.size());
+        assertEquals("dummy", results.get(0).getPath());
+
+        // Property names in camel case match snake case fields
+        validator = CompiledValidator.forMessage(new ObjectSchema().withRequiredProperty("dummyId", TypeCode.String),
+                DummyIdRequest.getDescriptor());
+        assertEquals(0, validator.validate(DummyIdRequest.newBuilder().setDummyId("1").build()).size());
+        assertEquals(1, validator.validate(DummyIdRequest.getDefaultInstance()).size());
+    }
+
+    @Test
+    public void testSchemaMismatch() {
+        try {
+            CompiledValidator.forMessage(new ObjectSchema().withRequiredProperty("dummy", TypeCode.String),
+                    DummyObjectRequest.getDescriptor());
+            fail("Exception expected");
+        } catch (IllegalArgumentException ex) {
+            // String property is declared for a message field
+        }
+
+        try {
+            CompiledValidator.forMessage(new ObjectSchema().withRequiredProperty("dummies", TypeCode.Array),
+                    DummyObjectRequest.getDescriptor());
+            fail("Exception expected");
+        } catch (IllegalArgumentException ex) {
+            // Property is not defined
+        }
+    }
+
+    @Test
+    public void testMapValidation() {
+        var schema = new DummySchema();
+        var validator = CompiledValidator.forMap(schema);
+
+        var args = Parameters.fromJson("{\"key\":\"Key 1\",\"content\":\"Content 1\"}");
+        assertEquals(0, validator.validate(args).size());
+
+        // Property names are matched ignoring case as in generic schemas
+        args = Parameters.fromJson("{\"Key\":\"Key 1\"}");
+        assertEquals(schema.validate(args).size(), validator.validate(args).size());
+
+        args = Parameters.fromJson("{\"content\":123}");
+        var results = validator.validate(args);
+        assertEquals(2, results.size());
+        assertEquals("key", results.get(0).getPath());
+        assertEquals("VALUE_IS_NULL", results.get(0).getCode());
+        assertEquals("content", results.get(1).getPath());
+        assertEquals("TYPE_MISMATCH", results.get(1).getCode());
+        assertEquals(schema.validate(args).size(), results.size());
+
+        // Converted messages are accepted by compiled and generic map schemas
+        var request = toMap(createRequest("Key 1"));
+        assertTrue(requestSchema.validate(request).isEmpty());
+        assertTrue(CompiledValidator.forMap(requestSchema).validate(request).isEmpty());
+    }
+
+    @Test
+    public void testValidationBenchmark() {
+        Assume.assumeTrue("Benchmarks are disabled", Boolean.getBoolean("benchmarks"));
+
+        var iterations = 200000;
+        var request = createRequest("Key 1");
+        var messageValidator = CompiledValidator.forMessage(requestSchema, DummyObjectRequest.getDescriptor());
+        var mapValidator = CompiledValidator.forMap(requestSchema);
+
+        // Warm up JIT
+        for (var i = 0; i < 10000; i++) {
+            requestSchema.validate(toMap(request));
+            mapValidator.validate(toMap(request));
+            messageValidator.validate(request);
+        }
+
+        var start = System.nanoTime();
+        for (var i = 0; i < iterations; i++)
+            assertTrue(requestSchema.validate(toMap(request)).isEmpty());
+        var genericTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (var i = 0; i < iterations; i++)
+            assertTrue(mapValidator.validate(toMap(request)).isEmpty());
+        var mapTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (var i = 0; i < iterations; i++)
+            assertTrue(messageValidator.validate(request).isEmpty());
+        var messageTime = System.nanoTime() - start;
+
+        System.out.printf("Validation of %d requests: generic map schema %d ns, compiled map %d ns, compiled message %d ns per request%n",
+                iterations, genericTime / iterations, mapTime / iterations, messageTime / iterations);
+    }
+}